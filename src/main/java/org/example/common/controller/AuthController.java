@@ -4,11 +4,13 @@ import jakarta.validation.Valid;
 import org.example.common.dto.LoginRequest;
 import org.example.common.dto.SignupRequest;
 import org.example.common.dto.UserDto;
+import org.example.shared.datasource.ReadRouting;
 import org.example.shared.entity.User;
 import org.example.shared.entity.UserRole;
 import org.example.shared.repository.UserRepository;
-import org.example.shared.realtime.CentrifugoApi;
+import org.example.realtime.CentrifugoClient;
 import org.example.shared.security.JwtService;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.*;
@@ -23,22 +25,23 @@ public class AuthController {
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
     private final JwtService jwtService;
-    private final CentrifugoApi centrifugoApi;
+    private final CentrifugoClient centrifugo;
 
     public AuthController(UserRepository userRepository,
                           PasswordEncoder passwordEncoder,
                           JwtService jwtService,
-                          CentrifugoApi centrifugoApi) {
+                          CentrifugoClient centrifugo) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
         this.jwtService = jwtService;
-        this.centrifugoApi = centrifugoApi;
+        this.centrifugo = centrifugo;
     }
 
     @PostMapping("/signup")
     public ResponseEntity<?> signup(@Valid @RequestBody SignupRequest req) {
         String email = req.email().trim().toLowerCase();
-        if (userRepository.findByEmail(email).isPresent()) {
+        // auth lookups stay on the primary: nobody is signed in yet to make a replica read sticky
+        if (ReadRouting.onPrimary(() -> userRepository.findByEmail(email)).isPresent()) {
             return ResponseEntity.badRequest().body(Map.of("error", "email_exists"));
         }
 
@@ -56,7 +59,12 @@ public class AuthController {
             }
         } catch (Exception ignored) {}
 
-        userRepository.save(user);
+        try {
+            userRepository.saveAndFlush(user);
+        } catch (DataIntegrityViolationException e) {
+            // a concurrent signup with the same email won the unique key
+            return ResponseEntity.badRequest().body(Map.of("error", "email_exists"));
+        }
 
         UserDto userDto = new UserDto(
             user.getId(),
@@ -72,7 +80,7 @@ public class AuthController {
     @PostMapping("/login")
     public ResponseEntity<?> login(@Valid @RequestBody LoginRequest req) {
         String email = req.email().trim().toLowerCase();
-        Optional<User> opt = userRepository.findByEmail(email);
+        Optional<User> opt = ReadRouting.onPrimary(() -> userRepository.findByEmail(email));
         if (opt.isEmpty() || !passwordEncoder.matches(req.password(), opt.get().getPasswordHash())) {
             return ResponseEntity.status(401).body(Map.of("error", "invalid_credentials"));
         }
@@ -98,9 +106,9 @@ public class AuthController {
     @PostMapping("/logout")
     public ResponseEntity<?> logout(@org.springframework.security.core.annotation.AuthenticationPrincipal(expression = "user") User user) {
         try {
-            centrifugoApi.publish("missions", Map.of(
+            centrifugo.publish("missions", Map.of(
                 "type", "logout",
-                "userId", user.getId(),
+                "userId", user.getId().toString(),
                 "at", Instant.now().toString()
             ));
         } catch (Exception ignored) {}
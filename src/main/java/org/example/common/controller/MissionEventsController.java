@@ -0,0 +1,58 @@
+package org.example.common.controller;
+
+import org.example.realtime.MissionEventLog;
+import org.example.shared.entity.User;
+import org.example.shared.repository.MissionRepository;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Gap recovery for missions:&lt;id&gt;: a client that saw seq N asks for everything after it.
+ * Response: {"missionId":"..","lastSeq":M,"hasMore":bool,"events":[&lt;events as published&gt;]}.
+ */
+@RestController
+public class MissionEventsController {
+
+    private final MissionEventLog eventLog;
+    private final MissionRepository missionRepository;
+
+    public MissionEventsController(MissionEventLog eventLog, MissionRepository missionRepository) {
+        this.eventLog = eventLog;
+        this.missionRepository = missionRepository;
+    }
+
+    @GetMapping(path = "/missions/{id}/events", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<byte[]> events(@AuthenticationPrincipal(expression = "user") User user,
+                                         @PathVariable("id") UUID id,
+                                         @RequestParam(name = "afterSeq", defaultValue = "0") long afterSeq,
+                                         @RequestParam(name = "limit", defaultValue = "200") int limit) {
+        if (!missionRepository.isParticipant(id, user.getId())) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Mission not found");
+        }
+        int max = Math.max(1, Math.min(limit, 1000));
+        List<MissionEventLog.SequencedEvent> events = eventLog.since(id, Math.max(0, afterSeq), max);
+
+        // events are already JSON; splice them in as-is
+        ByteArrayOutputStream out = new ByteArrayOutputStream(256 + events.size() * 256);
+        out.writeBytes(("{\"missionId\":\"" + id + "\",\"lastSeq\":" + eventLog.lastSeq(id)
+                + ",\"hasMore\":" + (events.size() == max) + ",\"events\":[").getBytes(StandardCharsets.UTF_8));
+        for (int i = 0; i < events.size(); i++) {
+            if (i > 0) out.write(',');
+            out.writeBytes(events.get(i).json());
+        }
+        out.writeBytes("]}".getBytes(StandardCharsets.UTF_8));
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(out.toByteArray());
+    }
+}
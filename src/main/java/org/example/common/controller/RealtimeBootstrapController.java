@@ -0,0 +1,40 @@
+package org.example.common.controller;
+
+import org.example.common.dto.RealtimeBootstrapDto;
+import org.example.realtime.RealtimeEntitlements;
+import org.example.shared.entity.User;
+import org.example.shared.realtime.CentrifugoTokenService;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * One round trip for app start and reconnect, replacing the per-channel token endpoints:
+ * returns the connection token and a subscription token for every channel the caller may join.
+ */
+@RestController
+public class RealtimeBootstrapController {
+
+    private final CentrifugoTokenService tokenService;
+    private final RealtimeEntitlements entitlements;
+
+    public RealtimeBootstrapController(CentrifugoTokenService tokenService, RealtimeEntitlements entitlements) {
+        this.tokenService = tokenService;
+        this.entitlements = entitlements;
+    }
+
+    @PostMapping(path = "/realtime/bootstrap", produces = MediaType.APPLICATION_JSON_VALUE)
+    public RealtimeBootstrapDto bootstrap(@AuthenticationPrincipal(expression = "user") User user) {
+        // same subject as the per-channel endpoints (the authenticated name, i.e. the email)
+        String subject = user.getEmail();
+        Map<String, String> subscriptions = new LinkedHashMap<>();
+        for (String channel : entitlements.channelsFor(user)) {
+            subscriptions.put(channel, tokenService.issueSubscriptionToken(subject, channel));
+        }
+        return new RealtimeBootstrapDto(tokenService.issueConnectionToken(subject, null), subscriptions);
+    }
+}
@@ -0,0 +1,82 @@
+package org.example.common.dto;
+
+import org.example.shared.entity.MissionStatus;
+import org.example.shared.repository.MissionPageQuery;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Query parameters of the mission listings:
+ * {@code ?status=ASSIGNED,PICKED_UP&from=2024-05-01&to=2024-06-01&city=Paris&limit=50&cursor=...}.
+ * from/to take a date (to is exclusive) or an ISO instant; the next page's cursor comes back in the
+ * Link header.
+ */
+public record MissionListRequest(
+    List<String> status,
+    String from,
+    String to,
+    String city,
+    String cursor,
+    Integer limit
+) {
+    public static final int DEFAULT_LIMIT = 50;
+    public static final int MAX_LIMIT = 200;
+
+    public MissionPageQuery toQuery(UUID ownerId, UUID driverId) {
+        Set<MissionStatus> statuses = EnumSet.noneOf(MissionStatus.class);
+        if (status != null) {
+            for (String s : status) {
+                if (s == null || s.isBlank()) continue;
+                try {
+                    statuses.add(MissionStatus.valueOf(s.trim().toUpperCase(Locale.ROOT)));
+                } catch (IllegalArgumentException e) {
+                    throw badRequest("Unknown status: " + s);
+                }
+            }
+        }
+        MissionPageQuery.Cursor after = null;
+        if (cursor != null && !cursor.isBlank()) {
+            try {
+                after = MissionPageQuery.Cursor.decode(cursor);
+            } catch (IllegalArgumentException e) {
+                throw badRequest("Invalid cursor");
+            }
+        }
+        int size = limit == null ? DEFAULT_LIMIT : Math.max(1, Math.min(limit, MAX_LIMIT));
+        return new MissionPageQuery(ownerId, driverId, statuses, instant(from, "from"), instant(to, "to"),
+                city == null || city.isBlank() ? null : city.trim(), after, size);
+    }
+
+    /** Link header value pointing at the current request with the cursor replaced. */
+    public static String nextLink(String nextCursor) {
+        String next = ServletUriComponentsBuilder.fromCurrentRequest()
+                .replaceQueryParam("cursor", nextCursor)
+                .toUriString();
+        return "<" + next + ">; rel=\"next\"";
+    }
+
+    private static Instant instant(String value, String name) {
+        if (value == null || value.isBlank()) return null;
+        try {
+            return value.length() == 10
+                    ? LocalDate.parse(value).atStartOfDay(ZoneOffset.UTC).toInstant()
+                    : Instant.parse(value);
+        } catch (RuntimeException e) {
+            throw badRequest("Invalid " + name + ": expected yyyy-MM-dd or an ISO instant");
+        }
+    }
+
+    private static ResponseStatusException badRequest(String message) {
+        return new ResponseStatusException(HttpStatus.BAD_REQUEST, message);
+    }
+}
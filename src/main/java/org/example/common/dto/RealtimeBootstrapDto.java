@@ -0,0 +1,9 @@
+package org.example.common.dto;
+
+import java.util.Map;
+
+/** Everything a client needs to (re)connect: connection token plus channel -> subscription token. */
+public record RealtimeBootstrapDto(
+    String connectionToken,
+    Map<String, String> subscriptionTokens
+) {}
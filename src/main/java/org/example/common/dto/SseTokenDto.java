@@ -0,0 +1,7 @@
+package org.example.common.dto;
+
+/** Token for GET /realtime/sse?token=..., valid for opening a stream within expiresIn seconds. */
+public record SseTokenDto(
+    String token,
+    long expiresIn
+) {}
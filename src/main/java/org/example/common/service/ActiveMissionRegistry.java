@@ -0,0 +1,171 @@
+package org.example.common.service;
+
+import org.example.shared.datasource.ReadRouting;
+import org.example.shared.entity.Address;
+import org.example.shared.entity.Mission;
+import org.example.shared.entity.MissionStatus;
+import org.example.shared.repository.MissionRepository;
+import org.example.shared.transaction.AfterCommit;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.EnumSet;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory view of missions that currently have a driver on them (ASSIGNED, PICKED_UP,
+ * IN_TRANSIT), so hot paths like location ingest can authorize without touching MySQL.
+ *
+ * The registry is warmed with all active missions at startup, and MissionService pushes every
+ * committed transition here. A miss costs one lookup whose result, positive or negative, is
+ * then remembered, unless a transition for that mission was pushed while the lookup ran: the
+ * pushed state is newer. Entries are reloaded once older than their ttl, which also picks up
+ * changes committed by other instances. It also tracks each driver's load (number of active missions).
+ */
+@Service
+public class ActiveMissionRegistry {
+
+    public record ActiveMission(UUID missionId, UUID driverId, UUID ownerId, MissionStatus status,
+                                Double pickupLat, Double pickupLng, Double dropoffLat, Double dropoffLng) {}
+
+    public static final Set<MissionStatus> ACTIVE_STATUSES =
+            EnumSet.of(MissionStatus.ASSIGNED, MissionStatus.PICKED_UP, MissionStatus.IN_TRANSIT);
+
+    /** stamp orders the changes: an entry stamped after a lookup began is newer than its result. */
+    private record Entry(ActiveMission mission, long loadedAt, long stamp) {}
+
+    private final MissionRepository missionRepository;
+    private final long ttlMs;
+    private final long negativeTtlMs;
+    private final AtomicLong stamps = new AtomicLong();
+    private final ConcurrentHashMap<UUID, Entry> byMission = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<UUID, Set<UUID>> missionsByDriver = new ConcurrentHashMap<>();
+
+    public ActiveMissionRegistry(
+            MissionRepository missionRepository,
+            @Value("${app.missions.active-registry.ttl-ms:300000}") long ttlMs,
+            @Value("${app.missions.active-registry.negative-ttl-ms:30000}") long negativeTtlMs
+    ) {
+        this.missionRepository = missionRepository;
+        this.ttlMs = ttlMs;
+        this.negativeTtlMs = negativeTtlMs;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        long seen = stamps.get();
+        for (Mission m : ReadRouting.onPrimary(() -> missionRepository.findByStatusIn(ACTIVE_STATUSES))) {
+            install(m.getId(), toActive(m), seen);
+        }
+    }
+
+    /** The mission if it is active, loading it once on a miss. */
+    public Optional<ActiveMission> get(UUID missionId) {
+        Entry e = byMission.get(missionId);
+        if (e != null && System.currentTimeMillis() - e.loadedAt() < (e.mission() != null ? ttlMs : negativeTtlMs)) {
+            return Optional.ofNullable(e.mission());
+        }
+        long seen = stamps.get();
+        // on the primary: a replica lagging behind an assignment would cache the mission as inactive
+        ActiveMission loaded = ReadRouting.onPrimary(() ->
+                missionRepository.findById(missionId).map(ActiveMissionRegistry::toActive).orElse(null));
+        return Optional.ofNullable(install(missionId, loaded, seen));
+    }
+
+    /** Number of active missions currently held by the driver. */
+    public int driverLoad(UUID driverId) {
+        Set<UUID> missions = missionsByDriver.get(driverId);
+        return missions != null ? missions.size() : 0;
+    }
+
+    /** True if the mission is active and assigned to this driver. */
+    public boolean isAssignedTo(UUID missionId, UUID driverId) {
+        return get(missionId).map(m -> driverId.equals(m.driverId())).orElse(false);
+    }
+
+    /**
+     * Record a mission's new state once the surrounding transaction commits (immediately if
+     * there is none), so a rolled-back transition never becomes visible here.
+     */
+    public void onCommitted(Mission mission) {
+        UUID id = mission.getId();
+        ActiveMission snapshot = toActive(mission);
+        AfterCommit.run(() -> put(id, snapshot));
+    }
+
+    /**
+     * Record a status change made without loading the entity (driver transitions), once the
+     * transaction commits. Leaving the active statuses removes the mission.
+     */
+    public void onStatusCommitted(UUID missionId, MissionStatus status) {
+        AfterCommit.run(() -> {
+            if (!ACTIVE_STATUSES.contains(status)) {
+                put(missionId, null);
+                return;
+            }
+            Entry e = byMission.get(missionId);
+            if (e == null || e.mission() == null) {
+                // not known here: the next get() loads it, and a lookup already running must not cache
+                byMission.put(missionId, new Entry(null, 0, stamps.incrementAndGet()));
+                return;
+            }
+            ActiveMission m = e.mission();
+            put(missionId, new ActiveMission(m.missionId(), m.driverId(), m.ownerId(), status,
+                    m.pickupLat(), m.pickupLng(), m.dropoffLat(), m.dropoffLng()));
+        });
+    }
+
+    /** Drop remembered negative lookups (finished or unknown missions) once they expire. */
+    @Scheduled(fixedDelayString = "${app.missions.active-registry.negative-ttl-ms:30000}")
+    public void pruneNegatives() {
+        long cutoff = System.currentTimeMillis() - negativeTtlMs;
+        byMission.entrySet().removeIf(e -> e.getValue().mission() == null && e.getValue().loadedAt() < cutoff);
+    }
+
+    /* ======================= Helpers ======================= */
+
+    // cache a looked-up state unless a change was pushed since the lookup began; returns the state to use
+    private synchronized ActiveMission install(UUID missionId, ActiveMission loaded, long seen) {
+        Entry current = byMission.get(missionId);
+        if (current != null && current.stamp() > seen) {
+            // loadedAt 0: the pushed change left the state unknown, so the lookup's answer is the best there is
+            return current.loadedAt() == 0 ? loaded : current.mission();
+        }
+        put(missionId, loaded);
+        return loaded;
+    }
+
+    private synchronized void put(UUID missionId, ActiveMission mission) {
+        Entry previous = byMission.put(missionId, new Entry(mission, System.currentTimeMillis(), stamps.incrementAndGet()));
+        if (previous != null && previous.mission() != null) {
+            UUID oldDriver = previous.mission().driverId();
+            Set<UUID> held = missionsByDriver.get(oldDriver);
+            if (held != null) {
+                held.remove(missionId);
+                if (held.isEmpty()) missionsByDriver.remove(oldDriver);
+            }
+        }
+        if (mission != null) {
+            missionsByDriver.computeIfAbsent(mission.driverId(), d -> ConcurrentHashMap.newKeySet()).add(missionId);
+        }
+    }
+
+    private static ActiveMission toActive(Mission m) {
+        if (m.getDriver() == null) return null;
+        MissionStatus s = m.getStatus();
+        if (!ACTIVE_STATUSES.contains(s)) return null;
+        UUID ownerId = m.getOwner() != null ? m.getOwner().getId() : null;
+        Address pu = m.getPickup();
+        Address dr = m.getDropoff();
+        return new ActiveMission(m.getId(), m.getDriver().getId(), ownerId, s,
+                pu != null ? pu.getLat() : null, pu != null ? pu.getLng() : null,
+                dr != null ? dr.getLat() : null, dr != null ? dr.getLng() : null);
+    }
+}
@@ -0,0 +1,96 @@
+package org.example.common.service;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streaming RFC 4180 reader: one record at a time, quoted fields may hold commas, doubled quotes
+ * and line breaks. Only the current record is held in memory. A quoted field still open at the end
+ * of input does not fail the read: the record is returned with {@link #recordError()} set.
+ */
+final class CsvRowReader {
+    private final Reader in;
+    private int line = 1;       // physical line the reader is on
+    private int recordLine = 1; // line the last returned record started on
+    private int pushback = -2;  // -2: nothing pushed back
+    private String recordError;
+
+    CsvRowReader(Reader in) {
+        this.in = in;
+    }
+
+    /** Line number (1-based) of the record last returned by {@link #next()}. */
+    int recordLine() {
+        return recordLine;
+    }
+
+    /** Why the record last returned by {@link #next()} is malformed, or null if it is well-formed. */
+    String recordError() {
+        return recordError;
+    }
+
+    /** The next record's fields, or null at end of input. Blank lines are skipped. */
+    List<String> next() throws IOException {
+        int c = read();
+        while (c == '\r' || c == '\n') {
+            if (c == '\n') line++;
+            c = read();
+        }
+        if (c == -1) return null;
+        recordLine = line;
+        recordError = null;
+
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        while (true) {
+            if (quoted) {
+                if (c == -1) {
+                    recordError = "unterminated quoted field";
+                    fields.add(field.toString());
+                    return fields;
+                }
+                if (c == '"') {
+                    int n = read();
+                    if (n == '"') {
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                        c = n;
+                        continue;
+                    }
+                } else {
+                    if (c == '\n') line++;
+                    field.append((char) c);
+                }
+            } else if (c == '"' && field.length() == 0) {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\r' || c == '\n' || c == -1) {
+                if (c == '\r') {
+                    int n = read();
+                    if (n != '\n') pushback = n;
+                }
+                if (c != -1) line++;
+                fields.add(field.toString());
+                return fields;
+            } else {
+                field.append((char) c);
+            }
+            c = read();
+        }
+    }
+
+    private int read() throws IOException {
+        if (pushback != -2) {
+            int c = pushback;
+            pushback = -2;
+            return c;
+        }
+        return in.read();
+    }
+}
@@ -0,0 +1,78 @@
+package org.example.common.service;
+
+import org.example.dispatcher.dto.CandidateDriverDto;
+import org.example.shared.entity.Mission;
+import org.example.shared.entity.User;
+import org.example.shared.entity.UserRole;
+import org.example.shared.geo.DriverLocationIndex;
+import org.example.shared.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/** Nearest available drivers to a mission's pickup, from the in-memory position index. */
+@Service
+public class DriverCandidateService {
+
+    private final MissionService missionService;
+    private final DriverLocationIndex driverIndex;
+    private final ActiveMissionRegistry activeMissions;
+    private final UserRepository userRepository;
+    private final int maxDriverLoad;
+
+    public DriverCandidateService(
+            MissionService missionService,
+            DriverLocationIndex driverIndex,
+            ActiveMissionRegistry activeMissions,
+            UserRepository userRepository,
+            @Value("${app.drivers.max-active-missions:1}") int maxDriverLoad
+    ) {
+        this.missionService = missionService;
+        this.driverIndex = driverIndex;
+        this.activeMissions = activeMissions;
+        this.userRepository = userRepository;
+        this.maxDriverLoad = maxDriverLoad;
+    }
+
+    public List<CandidateDriverDto> candidatesFor(UUID ownerId, UUID missionId, int k) {
+        Mission mission = missionService.getOwned(ownerId, missionId);
+        if (mission.getPickup() == null || mission.getPickup().getLat() == null || mission.getPickup().getLng() == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Mission pickup has no coordinates");
+        }
+
+        List<DriverLocationIndex.Candidate> nearest = driverIndex.nearest(
+                mission.getPickup().getLat(), mission.getPickup().getLng(), k,
+                driverId -> activeMissions.driverLoad(driverId) < maxDriverLoad);
+        if (nearest.isEmpty()) return List.of();
+
+        // one query for the names/phones of the k drivers
+        Map<UUID, User> users = userRepository.findAllById(nearest.stream().map(DriverLocationIndex.Candidate::driverId).toList())
+                .stream().collect(Collectors.toMap(User::getId, Function.identity()));
+
+        List<CandidateDriverDto> out = new ArrayList<>(nearest.size());
+        for (DriverLocationIndex.Candidate c : nearest) {
+            User u = users.get(c.driverId());
+            if (u == null || u.getRole() != UserRole.DRIVER) continue;
+            out.add(new CandidateDriverDto(
+                    c.driverId(),
+                    u.getName(),
+                    u.getPhone(),
+                    c.lat(),
+                    c.lng(),
+                    Math.round(c.distanceMeters() * 10) / 10.0,
+                    activeMissions.driverLoad(c.driverId()),
+                    Instant.ofEpochMilli(c.seenAt())
+            ));
+        }
+        return out;
+    }
+}
@@ -0,0 +1,162 @@
+package org.example.common.service;
+
+import org.example.common.service.ActiveMissionRegistry.ActiveMission;
+import org.example.shared.entity.MissionStatus;
+import org.example.shared.geo.EtaModel;
+import org.example.shared.repository.MissionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps Mission.eta (estimated delivery time) current from the driver's live position.
+ *
+ * Each accepted fix is turned into an ETA with the {@link EtaModel}: driver to pickup, a dwell,
+ * then pickup to dropoff while ASSIGNED; driver to dropoff once the parcel is on board. The ETA
+ * only counts as changed once it moves by more than the threshold, and changed values are
+ * written back in one transaction per interval instead of one UPDATE per fix. Each write only
+ * applies while the mission still has the status and driver the ETA was computed for.
+ */
+@Service
+public class MissionEtaService {
+    private static final Logger log = LoggerFactory.getLogger(MissionEtaService.class);
+
+    /** Last driver position seen for a mission and the ETA currently published for it. */
+    private record State(double lat, double lng, long at, long etaMs) {}
+
+    /** An ETA to write back, with the status and driver it was computed for. */
+    private record Pending(long etaMs, MissionStatus status, UUID driverId) {}
+
+    private final EtaModel model;
+    private final MissionRepository missionRepository;
+    private final MissionViewCache viewCache;
+    private final TransactionTemplate tx;
+    private final long thresholdMs;
+    private final long pickupDwellMs;
+    private final ConcurrentHashMap<UUID, State> states = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<UUID, Pending> dirty = new ConcurrentHashMap<>();
+
+    public MissionEtaService(
+            EtaModel model,
+            MissionRepository missionRepository,
+            MissionViewCache viewCache,
+            PlatformTransactionManager transactionManager,
+            @Value("${app.eta.threshold-seconds:60}") long thresholdSeconds,
+            @Value("${app.eta.pickup-dwell-seconds:120}") long pickupDwellSeconds
+    ) {
+        this.model = model;
+        this.missionRepository = missionRepository;
+        this.viewCache = viewCache;
+        this.tx = new TransactionTemplate(transactionManager);
+        this.thresholdMs = thresholdSeconds * 1000;
+        this.pickupDwellMs = pickupDwellSeconds * 1000;
+    }
+
+    /**
+     * Fold in the driver's newest position. Returns the mission's current ETA in epoch ms, or null
+     * if it cannot be estimated (missing coordinates).
+     */
+    public Long onPosition(ActiveMission mission, double lat, double lng, long at) {
+        Long eta = estimate(mission.status(), lat, lng, at,
+                mission.pickupLat(), mission.pickupLng(), mission.dropoffLat(), mission.dropoffLng());
+        if (eta == null) return null;
+        State state = states.compute(mission.missionId(), (id, old) -> {
+            if (old != null && at < old.at()) return old; // out-of-order fix
+            if (old != null && Math.abs(eta - old.etaMs()) < thresholdMs) {
+                return new State(lat, lng, at, old.etaMs());
+            }
+            dirty.put(id, new Pending(eta, mission.status(), mission.driverId()));
+            return new State(lat, lng, at, eta);
+        });
+        return state.etaMs();
+    }
+
+    /**
+     * ETA for a mission about to enter {@code status}, from the last known driver position, or null
+     * if the driver has not reported one yet. Callers store it along with the transition, and report
+     * it through {@link #onTransitionCommitted} once that committed; nothing changes here until then.
+     */
+    public Instant estimateFor(ActiveMission mission, MissionStatus status) {
+        State state = states.get(mission.missionId());
+        if (state == null) return null;
+        Long eta = estimate(status, state.lat(), state.lng(), Math.max(state.at(), System.currentTimeMillis()),
+                mission.pickupLat(), mission.pickupLng(), mission.dropoffLat(), mission.dropoffLng());
+        return eta == null ? null : Instant.ofEpochMilli(eta);
+    }
+
+    /**
+     * A transition stored {@code eta} (from {@link #estimateFor}) with the mission: it is now the
+     * published ETA, and a value computed for the previous status must not be written over it.
+     */
+    public void onTransitionCommitted(UUID missionId, Instant eta) {
+        states.computeIfPresent(missionId, (id, state) -> {
+            dirty.remove(id); // under the entry's lock, like onPosition's put
+            return new State(state.lat(), state.lng(), state.at(), eta.toEpochMilli());
+        });
+    }
+
+    /** Stop tracking a finished mission. */
+    public void forget(UUID missionId) {
+        states.remove(missionId);
+        dirty.remove(missionId);
+    }
+
+    @Scheduled(fixedDelayString = "${app.eta.write-interval-ms:5000}")
+    public void writeBack() {
+        if (dirty.isEmpty()) return;
+        List<Map.Entry<UUID, Pending>> batch = new ArrayList<>(dirty.size());
+        for (UUID id : dirty.keySet()) {
+            Pending pending = dirty.remove(id);
+            if (pending != null) batch.add(Map.entry(id, pending));
+        }
+        try {
+            // a mission that moved on (transition, reassignment, cancel) since its fix matches no row
+            List<UUID> written = tx.execute(status -> {
+                List<UUID> ids = new ArrayList<>(batch.size());
+                for (Map.Entry<UUID, Pending> e : batch) {
+                    Pending p = e.getValue();
+                    if (missionRepository.updateEta(e.getKey(), Instant.ofEpochMilli(p.etaMs()), p.status(), p.driverId()) > 0) {
+                        ids.add(e.getKey());
+                    }
+                }
+                return ids;
+            });
+            if (written.size() < batch.size()) {
+                log.debug("ETA write-back skipped stale={}", batch.size() - written.size());
+            }
+            for (UUID id : written) viewCache.invalidate(id);
+        } catch (Exception e) {
+            // put them back unless a newer value arrived meanwhile
+            for (Map.Entry<UUID, Pending> entry : batch) dirty.putIfAbsent(entry.getKey(), entry.getValue());
+            log.warn("ETA write-back failed size={} err={}", batch.size(), e.toString());
+        }
+    }
+
+    /* ======================= Helpers ======================= */
+
+    private Long estimate(MissionStatus status, double lat, double lng, long at,
+                          Double pickupLat, Double pickupLng, Double dropoffLat, Double dropoffLng) {
+        if (dropoffLat == null || dropoffLng == null) return null;
+        if (status == MissionStatus.ASSIGNED) {
+            if (pickupLat == null || pickupLng == null) return null;
+            return at + model.travelMillis(lat, lng, pickupLat, pickupLng)
+                    + pickupDwellMs
+                    + model.travelMillis(pickupLat, pickupLng, dropoffLat, dropoffLng);
+        }
+        if (status == MissionStatus.PICKED_UP || status == MissionStatus.IN_TRANSIT) {
+            return at + model.travelMillis(lat, lng, dropoffLat, dropoffLng);
+        }
+        return null;
+    }
+}
@@ -0,0 +1,342 @@
+package org.example.common.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.example.common.dto.AddressDto;
+import org.example.common.dto.ContactDto;
+import org.example.dispatcher.dto.CreateMissionRequest;
+import org.example.realtime.RealtimeEntitlements;
+import org.example.shared.entity.Mission;
+import org.example.shared.entity.User;
+import org.example.shared.repository.MissionRepository;
+import org.example.shared.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * Bulk creation of PENDING missions from an NDJSON or CSV body.
+ *
+ * The body is read one row at a time: each row is parsed and validated like a single
+ * POST /dispatcher/missions, and valid rows are collected into chunks. References come from the
+ * block allocator, so they never collide, and each chunk is inserted in its own transaction, which
+ * Hibernate sends as JDBC batches. Only the current chunk is in memory; one
+ * result per row is written to the report as it is known, followed by a summary:
+ *
+ * <pre>
+ * {"row":1,"status":"created","id":"...","reference":"MIS-..."}
+ * {"row":2,"status":"rejected","errors":{"pickup.city":"must not be blank"}}
+ * {"row":3,"status":"failed","error":"..."}       (the chunk's insert failed)
+ * {"summary":{"rows":3,"created":1,"rejected":1,"failed":1,"truncated":false}}
+ * </pre>
+ *
+ * Results carry their row number (NDJSON line, or CSV record line) and are not in row order:
+ * rejections are reported immediately, creations when their chunk commits. If the body cannot be
+ * read to the end (e.g. the upload broke off), the rows of the chunk not yet inserted are reported
+ * as failed and the summary line gets {@code "aborted":"<reason>"}; everything reported as created
+ * is committed, so the client can resend exactly the rest.
+ */
+@Service
+public class MissionImportService {
+    private static final Logger log = LoggerFactory.getLogger(MissionImportService.class);
+
+    public enum Format { NDJSON, CSV }
+
+    /** CSV header names; order is free, unknown columns are ignored. */
+    private static final List<String> CSV_COLUMNS = List.of(
+            "pickup_line1", "pickup_city", "pickup_postal_code", "pickup_notes", "pickup_lat", "pickup_lng",
+            "dropoff_line1", "dropoff_city", "dropoff_postal_code", "dropoff_notes", "dropoff_lat", "dropoff_lng",
+            "contact_pickup_name", "contact_pickup_phone", "contact_dropoff_name", "contact_dropoff_phone",
+            "package_size", "notes");
+
+    private record Pending(int row, Mission mission) {}
+
+    private static final class Counts {
+        int rows, created, rejected, failed;
+        boolean truncated;
+    }
+
+    private final MissionService missionService;
+    private final MissionRepository missionRepository;
+    private final UserRepository userRepository;
+    private final RealtimeEntitlements entitlements;
+    private final Validator validator;
+    private final ObjectReader requestReader;
+    private final ObjectMapper mapper;
+    private final TransactionTemplate tx;
+    private final int batchSize;
+    private final int maxRows;
+
+    public MissionImportService(
+            MissionService missionService,
+            MissionRepository missionRepository,
+            UserRepository userRepository,
+            RealtimeEntitlements entitlements,
+            Validator validator,
+            ObjectMapper mapper,
+            PlatformTransactionManager transactionManager,
+            @Value("${app.missions.import.batch-size:500}") int batchSize,
+            @Value("${app.missions.import.max-rows:100000}") int maxRows
+    ) {
+        this.missionService = missionService;
+        this.missionRepository = missionRepository;
+        this.userRepository = userRepository;
+        this.entitlements = entitlements;
+        this.validator = validator;
+        this.mapper = mapper;
+        this.requestReader = mapper.readerFor(CreateMissionRequest.class);
+        this.tx = new TransactionTemplate(transactionManager);
+        this.batchSize = Math.max(1, batchSize);
+        this.maxRows = maxRows;
+    }
+
+    /** Import the rows of {@code body} for the owner, writing the NDJSON report to {@code report}. */
+    public void importMissions(UUID ownerId, Format format, InputStream body, OutputStream report) throws IOException {
+        User owner = userRepository.getReferenceById(ownerId); // no select: only owner_id is written
+        Counts counts = new Counts();
+        List<Pending> chunk = new ArrayList<>(batchSize);
+        long started = System.currentTimeMillis();
+
+        try (JsonGenerator out = mapper.getFactory().createGenerator(report);
+             BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8))) {
+            out.setRootValueSeparator(null);
+            RowSource rows = format == Format.CSV ? new CsvSource(reader) : new NdjsonSource(reader);
+            String aborted = null;
+            while (true) {
+                ParsedRow row;
+                try {
+                    row = rows.next();
+                } catch (IOException e) {
+                    aborted = "Input could not be read: " + e.getMessage();
+                    log.warn("Mission import aborted owner={} afterRows={} err={}", ownerId, counts.rows, e.toString());
+                    break;
+                }
+                if (row == null) break;
+                if (counts.rows == maxRows) {
+                    counts.truncated = true;
+                    break;
+                }
+                counts.rows++;
+                Map<String, String> errors = row.errors != null ? row.errors : validate(row.request);
+                if (!errors.isEmpty()) {
+                    counts.rejected++;
+                    writeResult(out, row.line, "rejected", Map.of("errors", errors));
+                    continue;
+                }
+                chunk.add(new Pending(row.line, missionService.newPending(owner, row.request)));
+                if (chunk.size() == batchSize) insert(chunk, counts, out);
+            }
+            if (aborted != null) {
+                for (Pending p : chunk) {
+                    counts.failed++;
+                    writeResult(out, p.row(), "failed", Map.of("error", "Import aborted before this row was inserted"));
+                }
+                chunk.clear();
+            }
+            if (!chunk.isEmpty()) insert(chunk, counts, out);
+
+            out.writeStartObject();
+            out.writeObjectFieldStart("summary");
+            out.writeNumberField("rows", counts.rows);
+            out.writeNumberField("created", counts.created);
+            out.writeNumberField("rejected", counts.rejected);
+            out.writeNumberField("failed", counts.failed);
+            out.writeBooleanField("truncated", counts.truncated);
+            out.writeEndObject();
+            if (aborted != null) out.writeStringField("aborted", aborted);
+            out.writeEndObject();
+            out.writeRaw('\n');
+        } finally {
+            if (counts.created > 0) entitlements.invalidate(ownerId);
+            log.info("Mission import owner={} rows={} created={} rejected={} failed={} truncated={} tookMs={}",
+                    ownerId, counts.rows, counts.created, counts.rejected, counts.failed, counts.truncated,
+                    System.currentTimeMillis() - started);
+        }
+    }
+
+    /* ======================= Insert ======================= */
+
+    private void insert(List<Pending> chunk, Counts counts, JsonGenerator out) throws IOException {
+        try {
+            tx.executeWithoutResult(status -> {
+                List<Mission> missions = new ArrayList<>(chunk.size());
+                for (Pending p : chunk) missions.add(p.mission());
+                missionRepository.saveAll(missions);
+                missionRepository.flush();
+            });
+            for (Pending p : chunk) {
+                counts.created++;
+                writeResult(out, p.row(), "created",
+                        Map.of("id", p.mission().getId(), "reference", p.mission().getReference()));
+            }
+        } catch (RuntimeException e) {
+            log.warn("Mission import chunk failed size={} err={}", chunk.size(), e.toString());
+            for (Pending p : chunk) {
+                counts.failed++;
+                writeResult(out, p.row(), "failed", Map.of("error", "Insert failed, row not imported"));
+            }
+        }
+        out.flush();
+        chunk.clear();
+    }
+
+    /* ======================= Parsing ======================= */
+
+    private static final class ParsedRow {
+        final int line;
+        final CreateMissionRequest request;
+        final Map<String, String> errors; // parse errors; null when parsed
+
+        ParsedRow(int line, CreateMissionRequest request, Map<String, String> errors) {
+            this.line = line;
+            this.request = request;
+            this.errors = errors;
+        }
+    }
+
+    private interface RowSource {
+        /** Next non-blank row, or null at end of input. */
+        ParsedRow next() throws IOException;
+    }
+
+    /** One CreateMissionRequest JSON object per line. */
+    private final class NdjsonSource implements RowSource {
+        private final BufferedReader reader;
+        private int line;
+
+        NdjsonSource(BufferedReader reader) {
+            this.reader = reader;
+        }
+
+        @Override
+        public ParsedRow next() throws IOException {
+            for (String text; (text = reader.readLine()) != null; ) {
+                line++;
+                if (text.isBlank()) continue;
+                try {
+                    return new ParsedRow(line, requestReader.readValue(text), null);
+                } catch (JsonProcessingException e) {
+                    return new ParsedRow(line, null, Map.of("row", "invalid JSON: " + e.getOriginalMessage()));
+                }
+            }
+            return null;
+        }
+    }
+
+    /** Header record naming the columns (see {@link #CSV_COLUMNS}), then one mission per record. */
+    private static final class CsvSource implements RowSource {
+        private final CsvRowReader reader;
+        private Map<String, Integer> index;
+
+        CsvSource(BufferedReader reader) {
+            this.reader = new CsvRowReader(reader);
+        }
+
+        @Override
+        public ParsedRow next() throws IOException {
+            if (index == null) {
+                List<String> header = reader.next();
+                if (header == null) return null;
+                index = new HashMap<>();
+                for (int i = 0; i < header.size(); i++) {
+                    index.put(header.get(i).trim().toLowerCase(Locale.ROOT), i);
+                }
+                if (CSV_COLUMNS.stream().noneMatch(index::containsKey)) {
+                    throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                            "CSV header expected, with columns among " + CSV_COLUMNS);
+                }
+            }
+            List<String> fields = reader.next();
+            if (fields == null) return null;
+            if (reader.recordError() != null) {
+                return new ParsedRow(reader.recordLine(), null, Map.of("row", reader.recordError()));
+            }
+            Map<String, String> errors = new TreeMap<>();
+            CreateMissionRequest request = new CreateMissionRequest(
+                    address(fields, "pickup", errors),
+                    address(fields, "dropoff", errors),
+                    contact(fields, "contact_pickup"),
+                    contact(fields, "contact_dropoff"),
+                    text(fields, "package_size"),
+                    text(fields, "notes"));
+            return new ParsedRow(reader.recordLine(), request, errors.isEmpty() ? null : errors);
+        }
+
+        private AddressDto address(List<String> f, String prefix, Map<String, String> errors) {
+            return new AddressDto(text(f, prefix + "_line1"), text(f, prefix + "_city"),
+                    text(f, prefix + "_postal_code"), text(f, prefix + "_notes"),
+                    number(f, prefix + "_lat", errors), number(f, prefix + "_lng", errors));
+        }
+
+        private ContactDto contact(List<String> f, String prefix) {
+            return new ContactDto(text(f, prefix + "_name"), text(f, prefix + "_phone"));
+        }
+
+        private String text(List<String> f, String column) {
+            Integer i = index.get(column);
+            if (i == null || i >= f.size()) return null;
+            String v = f.get(i).trim();
+            return v.isEmpty() ? null : v;
+        }
+
+        private Double number(List<String> f, String column, Map<String, String> errors) {
+            String v = text(f, column);
+            if (v == null) return null;
+            try {
+                return Double.valueOf(v);
+            } catch (NumberFormatException e) {
+                errors.put(column, "not a number");
+                return null;
+            }
+        }
+    }
+
+    /* ======================= Helpers ======================= */
+
+    private Map<String, String> validate(CreateMissionRequest request) {
+        if (request == null) return Map.of("row", "empty row");
+        Set<ConstraintViolation<CreateMissionRequest>> violations = validator.validate(request);
+        if (violations.isEmpty()) return Map.of();
+        Map<String, String> errors = new TreeMap<>();
+        for (ConstraintViolation<CreateMissionRequest> v : violations) {
+            errors.put(v.getPropertyPath().toString(), v.getMessage());
+        }
+        return errors;
+    }
+
+    private static void writeResult(JsonGenerator out, int row, String status, Map<String, ?> fields) throws IOException {
+        out.writeStartObject();
+        out.writeNumberField("row", row);
+        out.writeStringField("status", status);
+        for (Map.Entry<String, ?> e : fields.entrySet()) {
+            out.writeFieldName(e.getKey());
+            out.writeObject(e.getValue());
+        }
+        out.writeEndObject();
+        out.writeRaw('\n');
+    }
+}
@@ -0,0 +1,150 @@
+package org.example.common.service;
+
+import jakarta.annotation.PreDestroy;
+import org.example.shared.repository.MissionReferenceBlockRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Mission references, unique by construction: MIS-&lt;yyyyMMdd&gt;-&lt;n&gt;, n being the day's counter in
+ * Crockford base32 (no I, L, O, U), at least 4 characters.
+ *
+ * Each instance leases blocks of counter values from the day's row in mission_reference_blocks
+ * (hi/lo) and hands them out from memory, so only one reference in block-size costs a round trip
+ * and no two instances ever hold the same number. The lease commits in its own transaction: were it
+ * part of the caller's and rolled back, another instance could lease the same block again. Values of
+ * a block left unused at shutdown are skipped, never reused.
+ *
+ * The next block is leased in the background once the current one is half used. When a caller
+ * still finds both empty (first use, new day, burst), it leases on its own thread, with no monitor
+ * held; {@link #next()} must therefore be called outside any transaction, so that a caller never
+ * waits for a second pooled connection while holding one.
+ */
+@Service
+public class MissionReferenceAllocator {
+    private static final Logger log = LoggerFactory.getLogger(MissionReferenceAllocator.class);
+    private static final char[] BASE32 = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+    private static final int MIN_DIGITS = 4;
+    private static final DateTimeFormatter DAY = DateTimeFormatter.BASIC_ISO_DATE;
+
+    /** Counter values [next, limit) of one day. */
+    private record Block(String day, long next, long limit) {}
+
+    private final MissionReferenceBlockRepository blocks;
+    private final TransactionTemplate leaseTx;
+    private final int blockSize;
+    private final ExecutorService prefetcher = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "mission-reference-prefetch");
+        t.setDaemon(true);
+        return t;
+    });
+
+    // guarded by this; no I/O happens under the monitor
+    private String day;
+    private long next;
+    private long limit;
+    private Block spare;
+    private boolean prefetching;
+
+    public MissionReferenceAllocator(
+            MissionReferenceBlockRepository blocks,
+            PlatformTransactionManager transactionManager,
+            @Value("${app.missions.reference.block-size:100}") int blockSize
+    ) {
+        this.blocks = blocks;
+        this.leaseTx = new TransactionTemplate(transactionManager);
+        this.blockSize = Math.max(1, blockSize);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        prefetcher.shutdownNow();
+    }
+
+    public String next() {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("Mission references must be taken outside a transaction");
+        }
+        while (true) {
+            String today = today();
+            synchronized (this) {
+                if (!today.equals(day) || next == limit) {
+                    if (spare != null && spare.day().equals(today)) {
+                        install(spare);
+                        spare = null;
+                    }
+                }
+                if (today.equals(day) && next < limit) {
+                    String reference = "MIS-" + day + "-" + encode(next++);
+                    if (limit - next <= blockSize / 2) prefetch(today);
+                    return reference;
+                }
+            }
+            Block leased = lease(today);
+            synchronized (this) {
+                if (!today.equals(day) || next == limit) install(leased);
+                else if (spare == null) spare = leased; // another caller got there first; keep it
+            }
+        }
+    }
+
+    static String encode(long n) {
+        char[] buf = new char[13];
+        int i = buf.length;
+        do {
+            buf[--i] = BASE32[(int) (n & 31)];
+            n >>>= 5;
+        } while (n != 0 || buf.length - i < MIN_DIGITS);
+        return new String(buf, i, buf.length - i);
+    }
+
+    /* ======================= Helpers ======================= */
+
+    // caller holds the monitor
+    private void prefetch(String today) {
+        if (prefetching || (spare != null && spare.day().equals(today))) return;
+        prefetching = true;
+        prefetcher.execute(() -> {
+            Block leased = null;
+            try {
+                leased = lease(today);
+            } catch (RuntimeException e) {
+                log.warn("Mission reference block prefetch failed day={} err={}", today, e.toString());
+            }
+            synchronized (this) {
+                prefetching = false;
+                if (leased != null && (spare == null || !spare.day().equals(today))) spare = leased;
+            }
+        });
+    }
+
+    // caller holds the monitor
+    private void install(Block block) {
+        day = block.day();
+        next = block.next();
+        limit = block.limit();
+    }
+
+    private Block lease(String today) {
+        long high = leaseTx.execute(status -> {
+            blocks.lease(today, blockSize);
+            return blocks.lastInsertId().longValue();
+        });
+        return new Block(today, high - blockSize, high);
+    }
+
+    private static String today() {
+        return LocalDate.now(ZoneOffset.UTC).format(DAY);
+    }
+}
@@ -2,22 +2,30 @@
 package org.example.common.service;
 
 import org.example.dispatcher.dto.CreateMissionRequest;
+import org.example.dispatcher.dto.MissionDto;
 import org.example.shared.entity.Address;
 import org.example.shared.entity.Mission;
 import org.example.shared.entity.MissionStatus;
 import org.example.shared.entity.User;
 import org.example.shared.entity.UserRole;
+import org.example.shared.repository.KeysetPage;
+import org.example.shared.repository.MissionPageQuery;
 import org.example.shared.repository.MissionRepository;
+import org.example.shared.repository.MissionView;
 import org.example.shared.repository.UserRepository;
-import org.springframework.dao.DataIntegrityViolationException;
+import org.example.shared.track.MissionTrackStore;
+import org.example.shared.transaction.AfterCommit;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.server.ResponseStatusException;
 
 import java.time.Instant;
 import java.util.*;
 import org.example.dispatcher.realtime.DispatcherRealtimeService;
+import org.example.realtime.RealtimeEntitlements;
 
 @Service
 public class MissionService {
@@ -25,29 +33,88 @@ public class MissionService {
     private final MissionRepository missionRepository;
     private final UserRepository userRepository;
     private final DispatcherRealtimeService dispatcherRealtimeService;
+    private final ActiveMissionRegistry activeMissions;
+    private final MissionTrackStore trackStore;
+    private final MissionEtaService etaService;
+    private final PriceQuoteService priceQuotes;
+    private final RealtimeEntitlements entitlements;
+    private final MissionViewCache viewCache;
+    private final MissionReferenceAllocator references;
+    private final TransactionTemplate tx;
 
     public MissionService(
             MissionRepository missionRepository,
             UserRepository userRepository,
-            DispatcherRealtimeService dispatcherRealtimeService
+            DispatcherRealtimeService dispatcherRealtimeService,
+            ActiveMissionRegistry activeMissions,
+            MissionTrackStore trackStore,
+            MissionEtaService etaService,
+            PriceQuoteService priceQuotes,
+            RealtimeEntitlements entitlements,
+            MissionViewCache viewCache,
+            MissionReferenceAllocator references,
+            PlatformTransactionManager transactionManager
     ) {
         this.missionRepository = missionRepository;
         this.userRepository = userRepository;
         this.dispatcherRealtimeService = dispatcherRealtimeService;
+        this.activeMissions = activeMissions;
+        this.trackStore = trackStore;
+        this.etaService = etaService;
+        this.priceQuotes = priceQuotes;
+        this.entitlements = entitlements;
+        this.viewCache = viewCache;
+        this.references = references;
+        this.tx = new TransactionTemplate(transactionManager);
     }
 
     /* ======================= Query ======================= */
 
+    @Transactional(readOnly = true)
     public List<Mission> findByOwner(UUID ownerId) {
         User owner = userRepository.findById(ownerId).orElseThrow();
         return missionRepository.findByOwner(owner);
     }
 
+    @Transactional(readOnly = true)
     public List<Mission> findByDriver(UUID driverId) {
         User driver = userRepository.findById(driverId).orElseThrow();
         return missionRepository.findByDriver(driver);
     }
 
+    /** One page of an owner's or driver's missions, newest first. */
+    @Transactional(readOnly = true)
+    public KeysetPage<MissionDto> listPage(MissionPageQuery query) {
+        // one extra row tells whether there is a next page
+        MissionPageQuery probe = new MissionPageQuery(query.ownerId(), query.driverId(), query.statuses(),
+                query.from(), query.to(), query.city(), query.after(), query.limit() + 1);
+        List<MissionDto> rows = missionRepository.findPage(probe);
+        if (rows.size() <= query.limit()) return new KeysetPage<>(rows, null);
+        List<MissionDto> items = rows.subList(0, query.limit());
+        MissionDto last = items.get(items.size() - 1);
+        return new KeysetPage<>(items, new MissionPageQuery.Cursor(last.createdAt(), last.id()).encode());
+    }
+
+    /** Detail of a mission the owner created: 404 if missing, 403 if someone else's. */
+    public MissionDto viewOwned(UUID ownerId, UUID missionId) {
+        MissionView view = viewCache.get(missionId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Mission not found"));
+        if (!ownerId.equals(view.ownerId())) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Forbidden");
+        }
+        return view.mission();
+    }
+
+    /** Detail of a mission assigned to the driver: 404 if missing, 403 if not theirs. */
+    public MissionDto viewAssigned(UUID driverId, UUID missionId) {
+        MissionView view = viewCache.get(missionId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Mission not found"));
+        if (!driverId.equals(view.driverId())) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Mission not assigned to you");
+        }
+        return view.mission();
+    }
+
     public Mission getOwned(UUID ownerId, UUID missionId) {
         User owner = userRepository.findById(ownerId)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Owner not found"));
@@ -64,12 +131,24 @@ public class MissionService {
 
     /* ======================= Commands ======================= */
 
-    @Transactional
     public Mission createForOwner(UUID ownerId, CreateMissionRequest req) {
         User owner = userRepository.findById(ownerId).orElseThrow();
+        // built before the transaction: taking the reference may lease a block on its own connection
+        Mission mission = newPending(owner, req);
+        return tx.execute(status -> {
+            Mission saved = missionRepository.save(mission);
+            entitlements.onCommitted(saved);
+            return saved;
+        });
+    }
 
+    /**
+     * A PENDING mission built from the request, with a fresh reference; also used by the bulk import.
+     * Call outside a transaction (see {@link MissionReferenceAllocator}).
+     */
+    Mission newPending(User owner, CreateMissionRequest req) {
         Mission mission = new Mission();
-        mission.setReference(generateReference());
+        mission.setReference(references.next());
         mission.setStatus(MissionStatus.PENDING);
 
         Address pickup = new Address();
@@ -96,27 +175,12 @@ public class MissionService {
         mission.setOwner(owner);
         mission.setCreatedAt(Instant.now());
         mission.setUpdatedAt(null);
-        mission.setPriceEstimate(null);
-
-        int attempts = 0;
-        while (true) {
-            try {
-                Mission saved = missionRepository.save(mission);
-
-                return saved;
-            } catch (DataIntegrityViolationException ex) {
-                attempts++;
-                if (attempts >= 5) throw ex;
-                mission.setReference(generateReference());
-            }
-        }
+        mission.setPriceEstimate(priceQuotes.estimate(pickup, dropoff, req.packageSize()));
+        return mission;
     }
 
     @Transactional
     public Mission assignDriver(UUID missionId, String driverId) {
-        Mission mission = missionRepository.findById(missionId)
-                .orElseThrow(() -> new IllegalArgumentException("Mission not found"));
-
         UUID driverUuid;
         try {
             driverUuid = UUID.fromString(driverId);
@@ -124,29 +188,82 @@ public class MissionService {
             throw new IllegalArgumentException("Invalid driverId format");
         }
 
-        User driver = userRepository.findById(driverUuid)
+        // locked like in assignBatch, so an auto-dispatch round counting this driver's load waits for us
+        User driver = userRepository.findAllByIdForUpdate(List.of(driverUuid)).stream().findFirst()
                 .orElseThrow(() -> new IllegalArgumentException("User (driver) not found"));
 
+        Mission mission = missionRepository.findById(missionId)
+                .orElseThrow(() -> new IllegalArgumentException("Mission not found"));
+
         if (driver.getRole() != UserRole.DRIVER) {
             throw new IllegalArgumentException("Selected user is not a DRIVER");
         }
 
+        UUID previousDriverId = mission.getDriver() != null ? mission.getDriver().getId() : null;
         mission.setDriver(driver);
         mission.setStatus(MissionStatus.ASSIGNED);
         mission.setAssignedAt(Instant.now());
         Mission saved = missionRepository.save(mission);
+        activeMissions.onCommitted(saved);
+        viewCache.onCommitted(saved);
+        entitlements.onCommitted(saved);
+        AfterCommit.run(() -> entitlements.invalidate(previousDriverId));
+
+        // Notify realtime layer about the assignment so mobile/web clients receive updates.
+        // Written to the outbox in this transaction; published only if the assignment commits.
+        UUID drvId = saved.getDriver() != null ? saved.getDriver().getId() : null;
+        String drvName = saved.getDriver() != null ? saved.getDriver().getName() : null;
+        // Use overload that includes mission summary so clients can render directly
+        dispatcherRealtimeService.notifyMissionAssigned(saved, drvId, drvName);
 
-        // Notify realtime layer about the assignment so mobile/web clients receive updates
-        try {
-            UUID drvId = saved.getDriver() != null ? saved.getDriver().getId() : null;
-            String drvName = saved.getDriver() != null ? saved.getDriver().getName() : null;
-            // Use overload that includes mission summary so clients can render directly
-            dispatcherRealtimeService.notifyMissionAssigned(saved, drvId, drvName);
-        } catch (Exception e) {
-            // don't fail the API call if realtime notification fails
-            try { System.err.println("[MISSION SERVICE] failed to notify realtime: " + e.getMessage()); } catch (Exception ex) {}
+        return saved;
+    }
+
+    /**
+     * Assign many PENDING missions at once (auto-dispatch). Missions are row-locked and
+     * re-checked, so a mission taken meanwhile by a dispatcher or another instance is skipped.
+     * The drivers are row-locked too (as in assignDriver) and their active missions counted in the
+     * transaction, so a concurrent round or manual assignment is always counted and a driver at
+     * maxDriverLoad is skipped.
+     * Returns the missions actually assigned.
+     */
+    @Transactional
+    public List<Mission> assignBatch(Map<UUID, UUID> driverByMission, int maxDriverLoad) {
+        if (driverByMission.isEmpty()) return List.of();
+        // drivers first, then missions: the same lock order as assignDriver
+        Map<UUID, User> drivers = new HashMap<>();
+        for (User u : userRepository.findAllByIdForUpdate(new HashSet<>(driverByMission.values()))) {
+            drivers.put(u.getId(), u);
+        }
+        List<Mission> missions = missionRepository.findByIdIn(driverByMission.keySet());
+        Map<UUID, Long> load = new HashMap<>();
+        for (Object[] row : missionRepository.countByDrivers(drivers.keySet(), ActiveMissionRegistry.ACTIVE_STATUSES)) {
+            load.put((UUID) row[0], (Long) row[1]);
+        }
+
+        Instant now = Instant.now();
+        List<Mission> changed = new ArrayList<>();
+        for (Mission mission : missions) {
+            if (mission.getStatus() != MissionStatus.PENDING) continue;
+            User driver = drivers.get(driverByMission.get(mission.getId()));
+            if (driver == null || driver.getRole() != UserRole.DRIVER) continue;
+            long active = load.getOrDefault(driver.getId(), 0L);
+            if (active >= maxDriverLoad) continue;
+            load.put(driver.getId(), active + 1);
+            mission.setDriver(driver);
+            mission.setStatus(MissionStatus.ASSIGNED);
+            mission.setAssignedAt(now);
+            mission.setUpdatedAt(now);
+            changed.add(mission);
         }
 
+        List<Mission> saved = missionRepository.saveAll(changed);
+        for (Mission mission : saved) {
+            activeMissions.onCommitted(mission);
+            viewCache.onCommitted(mission);
+            entitlements.onCommitted(mission);
+            dispatcherRealtimeService.notifyMissionAssigned(mission, mission.getDriver().getId(), mission.getDriver().getName());
+        }
         return saved;
     }
 
@@ -161,86 +278,94 @@ public class MissionService {
         mission.setStatus(MissionStatus.CANCELLED);
         mission.setUpdatedAt(Instant.now());
         Mission saved = missionRepository.save(mission);
+        activeMissions.onCommitted(saved);
+        viewCache.onCommitted(saved);
+        entitlements.onCommitted(saved);
+        AfterCommit.run(() -> {
+            trackStore.seal(missionId);
+            etaService.forget(missionId);
+        });
+        dispatcherRealtimeService.notifyMissionCancelled(saved.getId(), ownerId, null);
 
         return saved;
     }
 
     @Transactional
-    public Mission markPickedUp(UUID missionId, UUID driverId) {
-        Mission mission = missionRepository.findById(missionId)
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Mission not found"));
-
-        if (mission.getDriver() == null || !mission.getDriver().getId().equals(driverId)) {
-            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Mission not assigned to you");
-        }
-
-        if (mission.getStatus() == MissionStatus.DELIVERED || mission.getStatus() == MissionStatus.CANCELLED) {
-            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Mission is already terminal");
-        }
-
-        if (mission.getStatus() != MissionStatus.ASSIGNED) {
-            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid status transition");
-        }
-
-        mission.setStatus(MissionStatus.PICKED_UP);
-        mission.setPickedUpAt(Instant.now());
-        mission.setUpdatedAt(Instant.now());
-        return missionRepository.save(mission);
+    public MissionDto markPickedUp(UUID missionId, UUID driverId) {
+        return transition(missionId, driverId, MissionStatus.ASSIGNED, MissionStatus.PICKED_UP);
     }
 
     @Transactional
-    public Mission markInTransit(UUID missionId, UUID driverId) {
-        Mission mission = missionRepository.findById(missionId)
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Mission not found"));
-
-        if (mission.getDriver() == null || !mission.getDriver().getId().equals(driverId)) {
-            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Mission not assigned to you");
-        }
-
-        if (mission.getStatus() == MissionStatus.DELIVERED || mission.getStatus() == MissionStatus.CANCELLED) {
-            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Mission is already terminal");
-        }
-
-        if (mission.getStatus() != MissionStatus.PICKED_UP) {
-            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid status transition");
-        }
-
-        mission.setStatus(MissionStatus.IN_TRANSIT);
-        mission.setInTransitAt(Instant.now());
-        mission.setUpdatedAt(Instant.now());
-        return missionRepository.save(mission);
+    public MissionDto markInTransit(UUID missionId, UUID driverId) {
+        return transition(missionId, driverId, MissionStatus.PICKED_UP, MissionStatus.IN_TRANSIT);
     }
 
     @Transactional
-    public Mission markDelivered(UUID missionId, UUID driverId) {
-        Mission mission = missionRepository.findById(missionId)
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Mission not found"));
-
-        if (mission.getDriver() == null || !mission.getDriver().getId().equals(driverId)) {
-            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Mission not assigned to you");
-        }
+    public MissionDto markDelivered(UUID missionId, UUID driverId) {
+        return transition(missionId, driverId, MissionStatus.IN_TRANSIT, MissionStatus.DELIVERED);
+    }
 
-        if (mission.getStatus() == MissionStatus.DELIVERED || mission.getStatus() == MissionStatus.CANCELLED) {
-            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Mission is already terminal");
-        }
+    /* ======================= Helpers ======================= */
 
-        if (mission.getStatus() != MissionStatus.IN_TRANSIT) {
+    /*
+     * Driver transitions are one conditional UPDATE; the mission is only read afterwards (by key,
+     * as a projection) to build the response and the notification. When no row matched, that read
+     * tells why. A repeated request for a transition that already happened (double tap, retry after
+     * a lost response) returns the current state without notifying again.
+     */
+    private MissionDto transition(UUID missionId, UUID driverId, MissionStatus from, MissionStatus to) {
+        // the remaining route changes with the status (no pickup leg once the parcel is on board)
+        Instant eta = to == MissionStatus.DELIVERED ? null : activeMissions.get(missionId)
+                .map(m -> etaService.estimateFor(m, to))
+                .orElse(null);
+        int updated = missionRepository.transition(missionId, driverId, from, to, Instant.now(), eta);
+
+        MissionView view = missionRepository.findView(missionId)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Mission not found"));
+        if (updated == 0) {
+            if (!driverId.equals(view.driverId())) {
+                throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Mission not assigned to you");
+            }
+            String status = view.mission().status();
+            if (status.equals(to.name())) return view.mission();
+            if (status.equals(MissionStatus.DELIVERED.name()) || status.equals(MissionStatus.CANCELLED.name())) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Mission is already terminal");
+            }
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid status transition");
         }
 
-        mission.setStatus(MissionStatus.DELIVERED);
-        mission.setDeliveredAt(Instant.now());
-        mission.setUpdatedAt(Instant.now());
-        return missionRepository.save(mission);
+        activeMissions.onStatusCommitted(missionId, to);
+        viewCache.onCommitted(missionId);
+        if (eta != null) AfterCommit.run(() -> etaService.onTransitionCommitted(missionId, eta));
+        if (to == MissionStatus.DELIVERED) {
+            entitlements.onCommitted(driverId, view.ownerId());
+            AfterCommit.run(() -> {
+                trackStore.seal(missionId);
+                etaService.forget(missionId);
+            });
+        }
+        notifyStatusChanged(view);
+        return view.mission();
     }
 
+    // publish status change to mission channel (via the outbox) + the owner's status stream
+    private void notifyStatusChanged(MissionView view) {
+        MissionDto m = view.mission();
+        dispatcherRealtimeService.notifyMissionStatusChanged(
+                m.id(),
+                view.driverId(),
+                view.ownerId(),
+                m.status(),
+                epochMillis(m.assignedAt()),
+                epochMillis(m.pickedUpAt()),
+                epochMillis(m.inTransitAt()),
+                epochMillis(m.deliveredAt()),
+                m.eta() != null ? epochMillis(Instant.parse(m.eta())) : null
+        );
+    }
 
-    /* ======================= Helpers ======================= */
-
-    private String generateReference() {
-        String date = java.time.LocalDate.now().format(java.time.format.DateTimeFormatter.BASIC_ISO_DATE);
-        String suffix = UUID.randomUUID().toString().replace("-", "").substring(0, 6).toUpperCase();
-        return "MIS-" + date + "-" + suffix;
+    private static String epochMillis(Instant instant) {
+        return instant != null ? String.valueOf(instant.toEpochMilli()) : null;
     }
 
 }
@@ -0,0 +1,82 @@
+package org.example.common.service;
+
+import org.example.shared.datasource.ReadRouting;
+import org.example.shared.entity.Mission;
+import org.example.shared.repository.MissionRepository;
+import org.example.shared.repository.MissionView;
+import org.example.shared.transaction.AfterCommit;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Short-lived cache of mission detail views, so apps polling a mission en route are served from
+ * memory. Only missions with a driver on them (ASSIGNED, PICKED_UP, IN_TRANSIT) are kept.
+ *
+ * MissionService drops an entry when a transition commits, and the ETA write-back when it stores
+ * a new estimate; the TTL bounds staleness from any other path. A load that raced with an
+ * invalidation is returned but not kept.
+ */
+@Service
+public class MissionViewCache {
+
+    private record Entry(MissionView view, long loadedAt) {}
+
+    private final MissionRepository missionRepository;
+    private final long ttlMs;
+    private final ConcurrentHashMap<UUID, Entry> byMission = new ConcurrentHashMap<>();
+    private final AtomicLong invalidations = new AtomicLong();
+
+    public MissionViewCache(
+            MissionRepository missionRepository,
+            @Value("${app.missions.view-cache.ttl-ms:5000}") long ttlMs
+    ) {
+        this.missionRepository = missionRepository;
+        this.ttlMs = ttlMs;
+    }
+
+    public Optional<MissionView> get(UUID missionId) {
+        Entry e = byMission.get(missionId);
+        if (e != null && System.currentTimeMillis() - e.loadedAt() < ttlMs) return Optional.of(e.view());
+
+        long seen = invalidations.get();
+        Optional<MissionView> loaded = ReadRouting.onPrimary(() -> missionRepository.findView(missionId));
+        if (loaded.isPresent() && isActive(loaded.get())) {
+            byMission.put(missionId, new Entry(loaded.get(), System.currentTimeMillis()));
+            if (invalidations.get() != seen) byMission.remove(missionId);
+        } else {
+            byMission.remove(missionId);
+        }
+        return loaded;
+    }
+
+    /** Drop the mission's view once the surrounding transaction commits. */
+    public void onCommitted(Mission mission) {
+        onCommitted(mission.getId());
+    }
+
+    public void onCommitted(UUID missionId) {
+        AfterCommit.run(() -> invalidate(missionId));
+    }
+
+    public void invalidate(UUID missionId) {
+        invalidations.incrementAndGet();
+        byMission.remove(missionId);
+    }
+
+    @Scheduled(fixedDelayString = "${app.missions.view-cache.ttl-ms:5000}")
+    public void pruneExpired() {
+        long cutoff = System.currentTimeMillis() - ttlMs;
+        byMission.values().removeIf(e -> e.loadedAt() < cutoff);
+    }
+
+    private static boolean isActive(MissionView view) {
+        String status = view.mission().status();
+        return ActiveMissionRegistry.ACTIVE_STATUSES.stream().anyMatch(s -> s.name().equals(status));
+    }
+}
@@ -0,0 +1,134 @@
+package org.example.common.service;
+
+import org.example.dispatcher.dto.QuoteDto;
+import org.example.shared.entity.Address;
+import org.example.shared.geo.GeoUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Prices a delivery from its pickup/dropoff coordinates and parcel size.
+ *
+ * Price = max(minimum, base + perKm * road km), with base and perKm taken from the parcel size's
+ * tariff and road km estimated as great-circle distance times a detour factor. Both endpoints are
+ * snapped to a grid cell first, so every quote for the same pair of cells and size is identical
+ * and can be served from a bounded LRU cache.
+ */
+@Service
+public class PriceQuoteService {
+
+    private record Tariff(BigDecimal base, BigDecimal perKm) {}
+
+    private record Key(long pickupCell, long dropoffCell, String size) {}
+
+    private final Map<String, Tariff> tariffs;
+    private final BigDecimal minimum;
+    private final String currency;
+    private final double detourFactor;
+    private final double cellDeg;
+    private final Map<Key, QuoteDto> cache;
+
+    public PriceQuoteService(
+            @Value("${app.pricing.tariffs:SMALL=3.50+0.90,MEDIUM=5.00+1.20,LARGE=8.00+1.60}") String tariffs,
+            @Value("${app.pricing.minimum:5.00}") BigDecimal minimum,
+            @Value("${app.pricing.currency:EUR}") String currency,
+            @Value("${app.pricing.detour-factor:1.3}") double detourFactor,
+            @Value("${app.pricing.cell-deg:0.001}") double cellDeg,
+            @Value("${app.pricing.cache-size:10000}") int cacheSize
+    ) {
+        this.tariffs = parseTariffs(tariffs);
+        this.minimum = minimum;
+        this.currency = currency;
+        this.detourFactor = detourFactor;
+        this.cellDeg = cellDeg;
+        this.cache = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, QuoteDto> eldest) {
+                return size() > cacheSize;
+            }
+        };
+    }
+
+    /** Quote for a prospective mission; 400 if coordinates are missing or the size has no tariff. */
+    public QuoteDto quote(Double pickupLat, Double pickupLng, Double dropoffLat, Double dropoffLng, String packageSize) {
+        if (pickupLat == null || pickupLng == null || dropoffLat == null || dropoffLng == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Pickup and dropoff coordinates are required");
+        }
+        String size = normalize(packageSize);
+        Tariff tariff = tariffs.get(size);
+        if (tariff == null) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unknown package size: " + packageSize);
+        }
+
+        int py = cell(pickupLat), px = cell(pickupLng), dy = cell(dropoffLat), dx = cell(dropoffLng);
+        Key key = new Key(pack(py, px), pack(dy, dx), size);
+        synchronized (cache) {
+            QuoteDto hit = cache.get(key);
+            if (hit != null) return hit;
+        }
+        QuoteDto quote = compute(tariff, size, py, px, dy, dx);
+        synchronized (cache) {
+            cache.put(key, quote);
+        }
+        return quote;
+    }
+
+    /** Price for a new mission, or null when it cannot be priced (no coordinates, unknown size). */
+    public BigDecimal estimate(Address pickup, Address dropoff, String packageSize) {
+        if (pickup == null || dropoff == null || pickup.getLat() == null || pickup.getLng() == null
+                || dropoff.getLat() == null || dropoff.getLng() == null
+                || !tariffs.containsKey(normalize(packageSize))) {
+            return null;
+        }
+        return quote(pickup.getLat(), pickup.getLng(), dropoff.getLat(), dropoff.getLng(), packageSize).price();
+    }
+
+    /* ======================= Helpers ======================= */
+
+    private QuoteDto compute(Tariff tariff, String size, int py, int px, int dy, int dx) {
+        // distance between cell centres, so the result depends on the key only
+        double meters = GeoUtils.haversineMeters(
+                (py + 0.5) * cellDeg, (px + 0.5) * cellDeg,
+                (dy + 0.5) * cellDeg, (dx + 0.5) * cellDeg) * detourFactor;
+        BigDecimal km = BigDecimal.valueOf(meters / 1000).setScale(2, RoundingMode.HALF_UP);
+        BigDecimal price = tariff.base().add(tariff.perKm().multiply(km)).max(minimum).setScale(2, RoundingMode.HALF_UP);
+        return new QuoteDto(price, currency, km.doubleValue(), size);
+    }
+
+    private int cell(double deg) {
+        return (int) Math.floor(deg / cellDeg);
+    }
+
+    private static long pack(int y, int x) {
+        return ((long) y << 32) | (x & 0xffffffffL);
+    }
+
+    private static String normalize(String packageSize) {
+        return packageSize == null ? "" : packageSize.trim().toUpperCase(Locale.ROOT);
+    }
+
+    // "SMALL=3.50+0.90,MEDIUM=5.00+1.20" -> size -> (base, perKm)
+    private static Map<String, Tariff> parseTariffs(String spec) {
+        Map<String, Tariff> out = new HashMap<>();
+        for (String entry : spec.split(",")) {
+            if (entry.isBlank()) continue;
+            String[] sizeAndRates = entry.split("=", 2);
+            String[] rates = sizeAndRates.length == 2 ? sizeAndRates[1].split("\\+", 2) : new String[0];
+            if (rates.length != 2) {
+                throw new IllegalArgumentException("Invalid tariff '" + entry + "', expected SIZE=base+perKm");
+            }
+            out.put(normalize(sizeAndRates[0]),
+                    new Tariff(new BigDecimal(rates[0].trim()), new BigDecimal(rates[1].trim())));
+        }
+        return Map.copyOf(out);
+    }
+}
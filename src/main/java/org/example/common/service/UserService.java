@@ -12,6 +12,7 @@ import java.util.UUID;
 
 @Service
 public class UserService {
+    @Transactional(readOnly = true)
     public java.util.List<User> searchDrivers(String q) {
         if (q == null || q.isBlank()) {
             return userRepository.findByRoleOrderByNameAsc(UserRole.DRIVER);
@@ -1,48 +1,149 @@
 package org.example.dispatcher.controller;
 
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
-import org.example.common.dto.AddressDto;
+import org.example.common.dto.MissionListRequest;
 import org.example.dispatcher.dto.AssignMissionRequest;
+import org.example.dispatcher.dto.CandidateDriverDto;
 import org.example.dispatcher.dto.CreateMissionRequest;
 import org.example.dispatcher.dto.MissionDto;
-import org.example.common.dto.UserDto;
+import org.example.dispatcher.dto.QuoteDto;
+import org.example.dispatcher.dto.QuoteRequest;
 import org.example.shared.entity.Mission;
 import org.example.shared.entity.User;
+import org.example.common.service.DriverCandidateService;
+import org.example.common.service.MissionImportService;
 import org.example.common.service.MissionService;
+import org.example.common.service.PriceQuoteService;
+import org.example.shared.repository.KeysetPage;
+import org.example.shared.track.MissionTrackStore;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.List;
 import java.util.UUID;
-import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/dispatcher/missions")
 public class DispatcherMissionController {
 
+    private static final JsonFactory JSON = new JsonFactory();
+    private static final MediaType TEXT_CSV = MediaType.parseMediaType("text/csv");
+
     private final MissionService missionService;
+    private final MissionTrackStore trackStore;
+    private final DriverCandidateService candidateService;
+    private final PriceQuoteService priceQuotes;
+    private final MissionImportService importService;
 
-    public DispatcherMissionController(MissionService missionService) {
+    public DispatcherMissionController(MissionService missionService, MissionTrackStore trackStore,
+                                       DriverCandidateService candidateService, PriceQuoteService priceQuotes,
+                                       MissionImportService importService) {
         this.missionService = missionService;
+        this.trackStore = trackStore;
+        this.candidateService = candidateService;
+        this.priceQuotes = priceQuotes;
+        this.importService = importService;
     }
 
     @GetMapping
-    public List<MissionDto> listMissions(@AuthenticationPrincipal(expression = "user") User user) {
-        return missionService.findByOwner(user.getId()).stream().map(this::toDto).collect(Collectors.toList());
+    public ResponseEntity<List<MissionDto>> listMissions(@AuthenticationPrincipal(expression = "user") User user,
+                                                         MissionListRequest params) {
+        KeysetPage<MissionDto> page = missionService.listPage(params.toQuery(user.getId(), null));
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.nextCursor() != null) response.header(HttpHeaders.LINK, MissionListRequest.nextLink(page.nextCursor()));
+        return response.body(page.items());
     }
 
     @PostMapping
     public MissionDto createMission(@AuthenticationPrincipal(expression = "user") User user,
                                     @Valid @RequestBody CreateMissionRequest req) {
         Mission mission = missionService.createForOwner(user.getId(), req);
-        return toDto(mission);
+        return MissionDto.from(mission);
+    }
+
+    /**
+     * Bulk import: NDJSON (one create request per line) or CSV with a header record. Answers with
+     * one NDJSON result per row and a summary line; see {@link MissionImportService}.
+     */
+    @PostMapping(value = "/import", consumes = {"application/x-ndjson", "text/csv"})
+    public void importMissions(@AuthenticationPrincipal(expression = "user") User user,
+                               HttpServletRequest request, HttpServletResponse response) throws IOException {
+        MissionImportService.Format format = MediaType.parseMediaType(request.getContentType())
+                .isCompatibleWith(TEXT_CSV) ? MissionImportService.Format.CSV : MissionImportService.Format.NDJSON;
+        // the report is spooled to disk and sent once the body has been read, so a client that only
+        // reads the response after uploading cannot deadlock against a full socket buffer
+        Path report = Files.createTempFile("mission-import-", ".ndjson");
+        try {
+            try (OutputStream out = Files.newOutputStream(report)) {
+                importService.importMissions(user.getId(), format, request.getInputStream(), out);
+            }
+            response.setContentType("application/x-ndjson");
+            response.setContentLengthLong(Files.size(report));
+            Files.copy(report, response.getOutputStream());
+        } finally {
+            Files.deleteIfExists(report);
+        }
+    }
+
+    @PostMapping("/quote")
+    public QuoteDto quote(@Valid @RequestBody QuoteRequest req) {
+        return priceQuotes.quote(req.pickup().lat(), req.pickup().lng(),
+                req.dropoff().lat(), req.dropoff().lng(), req.packageSize());
     }
 
     @GetMapping("/{id}")
     public MissionDto getMission(@AuthenticationPrincipal(expression = "user") User user,
                                  @PathVariable("id") UUID id) {
-        Mission mission = missionService.getOwned(user.getId(), id);
-        return toDto(mission);
+        return missionService.viewOwned(user.getId(), id);
+    }
+
+    /** Recorded driver positions for playback: {"missionId","sealed","points":[{"at","lat","lng"},...]}. */
+    @GetMapping("/{id}/track")
+    public ResponseEntity<StreamingResponseBody> getTrack(@AuthenticationPrincipal(expression = "user") User user,
+                                                          @PathVariable("id") UUID id) {
+        missionService.getOwned(user.getId(), id);
+        StreamingResponseBody body = out -> {
+            try (JsonGenerator gen = JSON.createGenerator(out)) {
+                gen.writeStartObject();
+                gen.writeStringField("missionId", id.toString());
+                gen.writeBooleanField("sealed", trackStore.isSealed(id));
+                gen.writeArrayFieldStart("points");
+                trackStore.read(id, p -> {
+                    try {
+                        gen.writeStartObject();
+                        gen.writeNumberField("at", p.at());
+                        gen.writeNumberField("lat", p.lat());
+                        gen.writeNumberField("lng", p.lng());
+                        gen.writeEndObject();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                gen.writeEndArray();
+                gen.writeEndObject();
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
+    @GetMapping("/{id}/candidate-drivers")
+    public List<CandidateDriverDto> candidateDrivers(@AuthenticationPrincipal(expression = "user") User user,
+                                                     @PathVariable("id") UUID id,
+                                                     @RequestParam(name = "k", defaultValue = "5") int k) {
+        return candidateService.candidatesFor(user.getId(), id, Math.max(1, Math.min(k, 50)));
     }
 
     @PostMapping("/{id}/cancel")
@@ -56,62 +157,6 @@ public class DispatcherMissionController {
     public MissionDto assign(@PathVariable("id") UUID missionId,
                              @Valid @RequestBody AssignMissionRequest req) {
         Mission updated = missionService.assignDriver(missionId, req.driverId());
-        return toDto(updated);
-    }
-
-    private MissionDto toDto(Mission mission) {
-        AddressDto pickup = null;
-        if (mission.getPickup() != null) {
-            pickup = new AddressDto(
-                    mission.getPickup().getLine1(),
-                    mission.getPickup().getCity(),
-                    mission.getPickup().getPostalCode(),
-                    mission.getPickup().getNotes(),
-                    mission.getPickup().getLat(),
-                    mission.getPickup().getLng()
-            );
-        }
-
-        AddressDto dropoff = null;
-        if (mission.getDropoff() != null) {
-            dropoff = new AddressDto(
-                    mission.getDropoff().getLine1(),
-                    mission.getDropoff().getCity(),
-                    mission.getDropoff().getPostalCode(),
-                    mission.getDropoff().getNotes(),
-                    mission.getDropoff().getLat(),
-                    mission.getDropoff().getLng()
-            );
-        }
-
-        UserDto driverDto = null;
-        if (mission.getDriver() != null) {
-            driverDto = new UserDto(
-                    mission.getDriver().getId(),
-                    mission.getDriver().getName(),
-                    mission.getDriver().getEmail(),
-                    mission.getDriver().getPhone(),
-                    mission.getDriver().getRole().name()
-            );
-        }
-
-        return new MissionDto(
-                mission.getId(),
-                mission.getReference(),
-                mission.getStatus().name(),
-                pickup,
-                dropoff,
-                mission.getCreatedAt(),
-                mission.getUpdatedAt(),
-                mission.getAssignedAt(),
-                mission.getPickedUpAt(),
-                mission.getInTransitAt(),
-                mission.getDeliveredAt(),
-                mission.getEta() != null ? mission.getEta().toString() : null,
-                mission.getPriceEstimate(),
-                driverDto,
-                mission.getParcelSize(),
-                mission.getParcelNotes()
-        );
+        return MissionDto.from(updated);
     }
 }
@@ -1,6 +1,8 @@
 package org.example.dispatcher.controller;
 
+import org.example.realtime.RealtimeEntitlements;
 import org.example.shared.realtime.CentrifugoTokenService;
+import org.example.shared.security.UserPrincipal;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
@@ -14,9 +16,11 @@ import java.util.UUID;
 public class RealtimeController {
 
     private final CentrifugoTokenService centrifugoTokenService;
+    private final RealtimeEntitlements entitlements;
 
-    public RealtimeController(CentrifugoTokenService centrifugoTokenService) {
+    public RealtimeController(CentrifugoTokenService centrifugoTokenService, RealtimeEntitlements entitlements) {
         this.centrifugoTokenService = centrifugoTokenService;
+        this.entitlements = entitlements;
     }
 
     public static record MissionTokenRequest(UUID missionId) {}
@@ -30,6 +34,10 @@ public class RealtimeController {
             return ResponseEntity.badRequest().body(Map.of("error", "missionId required"));
         }
         String channel = "missions:" + req.missionId();
+        if (auth == null || !(auth.getPrincipal() instanceof UserPrincipal principal)
+                || !entitlements.canSubscribe(principal.getUser(), channel)) {
+            return ResponseEntity.status(403).body(Map.of("error", "Not allowed to subscribe to " + channel));
+        }
         String userId = (auth != null ? auth.getName() : "anonymous");
         String token = centrifugoTokenService.issueSubscriptionToken(userId, channel);
         return ResponseEntity.ok(Map.of("subscriptionToken", token, "channel", channel));
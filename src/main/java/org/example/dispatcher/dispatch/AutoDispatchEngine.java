@@ -0,0 +1,122 @@
+package org.example.dispatcher.dispatch;
+
+import org.example.common.service.ActiveMissionRegistry;
+import org.example.common.service.MissionService;
+import org.example.shared.entity.Mission;
+import org.example.shared.entity.MissionStatus;
+import org.example.shared.geo.DriverLocationIndex;
+import org.example.shared.repository.MissionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Optional auto-dispatch (app.dispatch.auto.enabled).
+ *
+ * Every interval, takes the oldest PENDING missions and the nearest available drivers around
+ * each pickup, builds a cost matrix (pickup distance + a per-active-mission load penalty) and
+ * solves it as one global assignment, which beats first-come greedy picks when several
+ * missions compete for the same drivers. All resulting assignments are committed in a single
+ * transaction, so their realtime events leave through the outbox as one batch.
+ */
+@Component
+public class AutoDispatchEngine {
+    private static final Logger log = LoggerFactory.getLogger(AutoDispatchEngine.class);
+
+    private final MissionRepository missionRepository;
+    private final MissionService missionService;
+    private final DriverLocationIndex driverIndex;
+    private final ActiveMissionRegistry activeMissions;
+    private final boolean enabled;
+    private final int batchSize;
+    private final int candidatesPerMission;
+    private final double maxPickupMeters;
+    private final double loadPenaltyMeters;
+    private final int maxDriverLoad;
+
+    public AutoDispatchEngine(
+            MissionRepository missionRepository,
+            MissionService missionService,
+            DriverLocationIndex driverIndex,
+            ActiveMissionRegistry activeMissions,
+            @Value("${app.dispatch.auto.enabled:false}") boolean enabled,
+            @Value("${app.dispatch.auto.batch-size:100}") int batchSize,
+            @Value("${app.dispatch.auto.candidates-per-mission:10}") int candidatesPerMission,
+            @Value("${app.dispatch.auto.max-pickup-km:15}") double maxPickupKm,
+            @Value("${app.dispatch.auto.load-penalty-meters:2000}") double loadPenaltyMeters,
+            @Value("${app.drivers.max-active-missions:1}") int maxDriverLoad
+    ) {
+        this.missionRepository = missionRepository;
+        this.missionService = missionService;
+        this.driverIndex = driverIndex;
+        this.activeMissions = activeMissions;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.candidatesPerMission = candidatesPerMission;
+        this.maxPickupMeters = maxPickupKm * 1000;
+        this.loadPenaltyMeters = loadPenaltyMeters;
+        this.maxDriverLoad = maxDriverLoad;
+    }
+
+    @Scheduled(fixedDelayString = "${app.dispatch.auto.interval-ms:5000}")
+    public void run() {
+        if (!enabled) return;
+
+        List<Mission> pending = new ArrayList<>();
+        for (Mission m : missionRepository.findByStatusOrderByCreatedAtAsc(MissionStatus.PENDING, PageRequest.of(0, batchSize))) {
+            if (m.getPickup() != null && m.getPickup().getLat() != null && m.getPickup().getLng() != null) pending.add(m);
+        }
+        if (pending.isEmpty()) return;
+
+        // columns = every driver that is a candidate for at least one mission
+        Map<UUID, Integer> column = new LinkedHashMap<>();
+        List<List<DriverLocationIndex.Candidate>> candidates = new ArrayList<>(pending.size());
+        for (Mission m : pending) {
+            List<DriverLocationIndex.Candidate> near = driverIndex.nearest(
+                    m.getPickup().getLat(), m.getPickup().getLng(), candidatesPerMission,
+                    d -> activeMissions.driverLoad(d) < maxDriverLoad);
+            List<DriverLocationIndex.Candidate> reachable = new ArrayList<>(near.size());
+            for (DriverLocationIndex.Candidate c : near) {
+                if (c.distanceMeters() > maxPickupMeters) break;
+                reachable.add(c);
+                column.putIfAbsent(c.driverId(), column.size());
+            }
+            candidates.add(reachable);
+        }
+        if (column.isEmpty()) return;
+
+        double[][] cost = new double[pending.size()][column.size()];
+        for (int i = 0; i < pending.size(); i++) {
+            Arrays.fill(cost[i], HungarianSolver.INFEASIBLE);
+            for (DriverLocationIndex.Candidate c : candidates.get(i)) {
+                cost[i][column.get(c.driverId())] = c.distanceMeters() + loadPenaltyMeters * activeMissions.driverLoad(c.driverId());
+            }
+        }
+
+        int[] match = HungarianSolver.solve(cost);
+        UUID[] driverOfColumn = column.keySet().toArray(new UUID[0]);
+        Map<UUID, UUID> assignments = new LinkedHashMap<>();
+        for (int i = 0; i < match.length; i++) {
+            if (match[i] >= 0) assignments.put(pending.get(i).getId(), driverOfColumn[match[i]]);
+        }
+        if (assignments.isEmpty()) return;
+
+        try {
+            List<Mission> assigned = missionService.assignBatch(assignments, maxDriverLoad);
+            log.info("Auto-dispatch assigned {} of {} pending missions ({} candidate drivers)",
+                    assigned.size(), pending.size(), column.size());
+        } catch (Exception e) {
+            log.warn("Auto-dispatch round failed err={}", e.toString());
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package org.example.dispatcher.dispatch;
+
+import java.util.Arrays;
+
+/**
+ * Minimum-cost one-to-one assignment (Hungarian method with potentials, O(n^3)).
+ * Rectangular matrices are padded to square with {@link #INFEASIBLE}.
+ */
+public final class HungarianSolver {
+    public static final double INFEASIBLE = 1e12;
+
+    private HungarianSolver() {}
+
+    /**
+     * @param cost cost[row][col]; use {@link #INFEASIBLE} for pairs that must not be matched
+     * @return for each row, the matched column, or -1 if the row is unmatched or only matched infeasibly
+     */
+    public static int[] solve(double[][] cost) {
+        int rows = cost.length;
+        if (rows == 0) return new int[0];
+        int cols = cost[0].length;
+        int n = Math.max(rows, cols);
+
+        // 1-based arrays as in the classic formulation; p[j] = row matched to column j
+        double[] u = new double[n + 1];
+        double[] v = new double[n + 1];
+        int[] p = new int[n + 1];
+        int[] way = new int[n + 1];
+        double[] minv = new double[n + 1];
+        boolean[] used = new boolean[n + 1];
+
+        for (int i = 1; i <= n; i++) {
+            p[0] = i;
+            int j0 = 0;
+            Arrays.fill(minv, Double.POSITIVE_INFINITY);
+            Arrays.fill(used, false);
+            do {
+                used[j0] = true;
+                int i0 = p[j0];
+                double delta = Double.POSITIVE_INFINITY;
+                int j1 = 0;
+                for (int j = 1; j <= n; j++) {
+                    if (used[j]) continue;
+                    double cur = at(cost, i0 - 1, j - 1, rows, cols) - u[i0] - v[j];
+                    if (cur < minv[j]) {
+                        minv[j] = cur;
+                        way[j] = j0;
+                    }
+                    if (minv[j] < delta) {
+                        delta = minv[j];
+                        j1 = j;
+                    }
+                }
+                for (int j = 0; j <= n; j++) {
+                    if (used[j]) {
+                        u[p[j]] += delta;
+                        v[j] -= delta;
+                    } else {
+                        minv[j] -= delta;
+                    }
+                }
+                j0 = j1;
+            } while (p[j0] != 0);
+            do {
+                int j1 = way[j0];
+                p[j0] = p[j1];
+                j0 = j1;
+            } while (j0 != 0);
+        }
+
+        int[] match = new int[rows];
+        Arrays.fill(match, -1);
+        for (int j = 1; j <= n; j++) {
+            int i = p[j] - 1;
+            int c = j - 1;
+            if (i < rows && c < cols && cost[i][c] < INFEASIBLE) match[i] = c;
+        }
+        return match;
+    }
+
+    private static double at(double[][] cost, int r, int c, int rows, int cols) {
+        return r < rows && c < cols ? cost[r][c] : INFEASIBLE;
+    }
+}
@@ -0,0 +1,15 @@
+package org.example.dispatcher.dto;
+
+import java.time.Instant;
+import java.util.UUID;
+
+public record CandidateDriverDto(
+    UUID driverId,
+    String name,
+    String phone,
+    double lat,
+    double lng,
+    double distanceMeters,
+    int activeMissions,
+    Instant lastSeenAt
+) {}
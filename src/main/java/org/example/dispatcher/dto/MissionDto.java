@@ -2,6 +2,10 @@ package org.example.dispatcher.dto;
 
 import org.example.common.dto.AddressDto;
 import org.example.common.dto.UserDto;
+import org.example.shared.entity.Address;
+import org.example.shared.entity.Mission;
+import org.example.shared.entity.User;
+
 import java.math.BigDecimal;
 import java.time.Instant;
 import java.util.UUID;
@@ -23,4 +27,33 @@ public record MissionDto(
 	UserDto driver,
 	String parcelSize, // Taille du colis
 	String parcelNotes // Notes additionnelles / Instructions particulières
-) {}
+) {
+
+	/** For responses to commands, which already hold the entity; reads go through MissionRepository views. */
+	public static MissionDto from(Mission mission) {
+		User d = mission.getDriver();
+		return new MissionDto(
+				mission.getId(),
+				mission.getReference(),
+				mission.getStatus().name(),
+				address(mission.getPickup()),
+				address(mission.getDropoff()),
+				mission.getCreatedAt(),
+				mission.getUpdatedAt(),
+				mission.getAssignedAt(),
+				mission.getPickedUpAt(),
+				mission.getInTransitAt(),
+				mission.getDeliveredAt(),
+				mission.getEta() != null ? mission.getEta().toString() : null,
+				mission.getPriceEstimate(),
+				d != null ? new UserDto(d.getId(), d.getName(), d.getEmail(), d.getPhone(), d.getRole().name()) : null,
+				mission.getParcelSize(),
+				mission.getParcelNotes()
+		);
+	}
+
+	private static AddressDto address(Address a) {
+		if (a == null) return null;
+		return new AddressDto(a.getLine1(), a.getCity(), a.getPostalCode(), a.getNotes(), a.getLat(), a.getLng());
+	}
+}
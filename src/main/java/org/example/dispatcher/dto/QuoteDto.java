@@ -0,0 +1,10 @@
+package org.example.dispatcher.dto;
+
+import java.math.BigDecimal;
+
+public record QuoteDto(
+    BigDecimal price,
+    String currency,
+    double distanceKm,
+    String packageSize
+) {}
@@ -0,0 +1,12 @@
+package org.example.dispatcher.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import org.example.common.dto.AddressDto;
+
+public record QuoteRequest(
+    @NotNull @Valid AddressDto pickup,
+    @NotNull @Valid AddressDto dropoff,
+    @NotBlank String packageSize
+) {}
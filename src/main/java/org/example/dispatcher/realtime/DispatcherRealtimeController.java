@@ -1,6 +1,8 @@
 package org.example.dispatcher.realtime;
 
+import org.example.realtime.RealtimeEntitlements;
 import org.example.shared.realtime.CentrifugoTokenService;
+import org.example.shared.security.UserPrincipal;
 import org.example.shared.repository.UserRepository;
 import org.example.shared.entity.User;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -20,6 +22,9 @@ public class DispatcherRealtimeController {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private RealtimeEntitlements entitlements;
+
     @PostMapping("/connection-token")
     public ResponseEntity<Map<String, String>> getConnectionToken(Authentication authentication) {
         try {
@@ -52,13 +57,21 @@ public class DispatcherRealtimeController {
             String missionId = (String) body.get("missionId");
             
             if (missionId == null || missionId.trim().isEmpty()) {
-                // General mission status updates for dispatchers
-                String token = centrifugoTokenService.issueSubscriptionToken(userId, "status");
-                return ResponseEntity.ok(Map.of("subscriptionToken", token));
+                // Status updates for the dispatcher's own missions (coalesced status-diff frames)
+                if (!(authentication.getPrincipal() instanceof UserPrincipal principal)) {
+                    return ResponseEntity.status(403).build();
+                }
+                String channel = "status:" + principal.getUser().getId();
+                String token = centrifugoTokenService.issueSubscriptionToken(userId, channel);
+                return ResponseEntity.ok(Map.of("subscriptionToken", token, "channel", channel));
             }
             
-            // Specific mission status updates (same channel as location updates)
+            // Specific mission status updates (same channel as location updates), owned missions only
             String channel = "missions:" + missionId.trim();
+            if (!(authentication.getPrincipal() instanceof UserPrincipal principal)
+                    || !entitlements.canSubscribe(principal.getUser(), channel)) {
+                return ResponseEntity.status(403).body(Map.of("error", "Not allowed to subscribe to " + channel));
+            }
             String token = centrifugoTokenService.issueSubscriptionToken(userId, channel);
             return ResponseEntity.ok(Map.of("subscriptionToken", token));
         } catch (Exception e) {
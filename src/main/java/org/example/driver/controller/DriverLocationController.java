@@ -0,0 +1,42 @@
+package org.example.driver.controller;
+
+import jakarta.validation.Valid;
+import org.example.driver.dto.LocationFix;
+import org.example.driver.dto.LocationUpdateRequest;
+import org.example.driver.realtime.DriverLocationService;
+import org.example.shared.entity.User;
+import org.example.shared.entity.UserRole;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/driver/location")
+public class DriverLocationController {
+
+    private final DriverLocationService locationService;
+
+    public DriverLocationController(DriverLocationService locationService) {
+        this.locationService = locationService;
+    }
+
+    /** Position while available (no mission); makes the driver a dispatch candidate. */
+    @PostMapping
+    public ResponseEntity<Map<String, Integer>> reportPosition(@AuthenticationPrincipal(expression = "user") User user,
+                                                               @Valid @RequestBody LocationUpdateRequest req) {
+        if (user.getRole() != UserRole.DRIVER) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Drivers only");
+        }
+        List<LocationFix> fixes = req.toFixes();
+        if (fixes.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "lat/lng or fixes required");
+        }
+        locationService.reportPosition(user.getId(), fixes);
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(Map.of("accepted", fixes.size()));
+    }
+}
@@ -0,0 +1,13 @@
+package org.example.driver.dto;
+
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.PositiveOrZero;
+
+public record LocationFix(
+    @NotNull @DecimalMin("-90.0") @DecimalMax("90.0") Double lat,
+    @NotNull @DecimalMin("-180.0") @DecimalMax("180.0") Double lng,
+    @PositiveOrZero Float accuracy,
+    Long at // epoch ms on the device; server time if absent
+) {}
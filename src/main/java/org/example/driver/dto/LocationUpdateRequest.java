@@ -0,0 +1,27 @@
+package org.example.driver.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.PositiveOrZero;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+/**
+ * Either a single fix ({"lat","lng","accuracy","at"}) or a batch buffered by the app
+ * while offline ({"fixes":[...]}).
+ */
+public record LocationUpdateRequest(
+    @DecimalMin("-90.0") @DecimalMax("90.0") Double lat,
+    @DecimalMin("-180.0") @DecimalMax("180.0") Double lng,
+    @PositiveOrZero Float accuracy,
+    Long at,
+    @Size(max = 500) List<@Valid LocationFix> fixes
+) {
+    public List<LocationFix> toFixes() {
+        if (fixes != null && !fixes.isEmpty()) return fixes;
+        if (lat == null || lng == null) return List.of();
+        return List.of(new LocationFix(lat, lng, accuracy, at));
+    }
+}
@@ -0,0 +1,96 @@
+package org.example.driver.realtime;
+
+import org.example.common.service.ActiveMissionRegistry;
+import org.example.common.service.MissionEtaService;
+import org.example.driver.dto.LocationFix;
+import org.example.realtime.CentrifugoClient;
+import org.example.shared.geo.DriverLocationIndex;
+import org.example.shared.track.MissionTrackStore;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Ingests driver GPS fixes.
+ *
+ * Fixes are authorized against {@link ActiveMissionRegistry} (memory, no DB round trip) and
+ * parked latest-wins per mission. Once per tick only the newest fix of each mission is
+ * published to missions:&lt;id&gt;, so N fixes per second per mission become one publish.
+ * Every accepted fix is also appended to the mission's track for playback, and the newest
+ * one feeds the driver position index used for dispatch and the mission's ETA.
+ */
+@Service
+public class DriverLocationService {
+
+    /** Newest accepted fix of a mission, with the driver who sent it and the resulting ETA. */
+    public record Position(UUID missionId, UUID driverId, double lat, double lng, float accuracy, Long eta, long at) {}
+
+    private final ActiveMissionRegistry activeMissions;
+    private final CentrifugoClient centrifugo;
+    private final MissionTrackStore trackStore;
+    private final DriverLocationIndex driverIndex;
+    private final MissionEtaService etaService;
+    private final ConcurrentHashMap<UUID, Position> pending = new ConcurrentHashMap<>();
+
+    public DriverLocationService(ActiveMissionRegistry activeMissions, CentrifugoClient centrifugo,
+                                 MissionTrackStore trackStore, DriverLocationIndex driverIndex,
+                                 MissionEtaService etaService) {
+        this.activeMissions = activeMissions;
+        this.centrifugo = centrifugo;
+        this.trackStore = trackStore;
+        this.driverIndex = driverIndex;
+        this.etaService = etaService;
+    }
+
+    /** Accept fixes for a mission the driver is on; returns the number of fixes accepted. */
+    public int ingest(UUID missionId, UUID driverId, List<LocationFix> fixes) {
+        ActiveMissionRegistry.ActiveMission mission = activeMissions.get(missionId)
+                .filter(m -> driverId.equals(m.driverId()))
+                .orElse(null);
+        if (mission == null) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Mission not assigned to you or not active");
+        }
+        long now = System.currentTimeMillis();
+        Position newest = null;
+        List<MissionTrackStore.TrackPoint> track = new ArrayList<>(fixes.size());
+        for (LocationFix fix : fixes) {
+            long at = fix.at() != null ? Math.min(fix.at(), now) : now;
+            Position p = new Position(missionId, driverId, fix.lat(), fix.lng(),
+                    fix.accuracy() != null ? fix.accuracy() : 0f, null, at);
+            if (newest == null || p.at() >= newest.at()) newest = p;
+            track.add(new MissionTrackStore.TrackPoint(at, p.lat(), p.lng()));
+        }
+        trackStore.append(missionId, track);
+        if (newest != null) {
+            Long eta = etaService.onPosition(mission, newest.lat(), newest.lng(), newest.at());
+            newest = new Position(missionId, driverId, newest.lat(), newest.lng(), newest.accuracy(), eta, newest.at());
+            pending.merge(missionId, newest, (old, neu) -> neu.at() >= old.at() ? neu : old);
+            driverIndex.update(driverId, newest.lat(), newest.lng(), newest.at());
+        }
+        return fixes.size();
+    }
+
+    /** Position of a driver who is not on a mission (on shift, waiting for work). */
+    public void reportPosition(UUID driverId, List<LocationFix> fixes) {
+        long now = System.currentTimeMillis();
+        for (LocationFix fix : fixes) {
+            long at = fix.at() != null ? Math.min(fix.at(), now) : now;
+            driverIndex.update(driverId, fix.lat(), fix.lng(), at);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.location.flush-interval-ms:1000}")
+    public void flush() {
+        for (UUID missionId : pending.keySet()) {
+            Position p = pending.remove(missionId);
+            if (p == null) continue;
+            centrifugo.publishMissionLocation(p.missionId(), p.driverId(), p.lat(), p.lng(), p.accuracy(), p.eta(), p.at());
+        }
+    }
+}
@@ -1,6 +1,8 @@
 package org.example.driver.realtime;
 
+import org.example.realtime.RealtimeEntitlements;
 import org.example.shared.realtime.CentrifugoTokenService;
+import org.example.shared.security.UserPrincipal;
 import org.example.shared.repository.UserRepository;
 import org.example.shared.entity.User;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -20,6 +22,9 @@ public class DriverRealtimeController {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private RealtimeEntitlements entitlements;
+
     @PostMapping("/connection-token")
     public ResponseEntity<Map<String, String>> getConnectionToken(Authentication authentication) {
         try {
@@ -68,18 +73,6 @@ public class DriverRealtimeController {
         }
     }
 
-    @PostMapping("/status-token")
-    public ResponseEntity<Map<String, String>> getStatusToken(Authentication authentication) {
-        try {
-            String userId = authentication.getName();
-            // Generate token for status channel subscription - allows drivers to publish status updates
-            String token = centrifugoTokenService.issueSubscriptionToken(userId, "status");
-            return ResponseEntity.ok(Map.of("subscriptionToken", token));
-        } catch (Exception e) {
-            return ResponseEntity.internalServerError().build();
-        }
-    }
-
     @PostMapping("/specific-mission-token")
     public ResponseEntity<Map<String, String>> getSpecificMissionToken(
             Authentication authentication, 
@@ -92,8 +85,12 @@ public class DriverRealtimeController {
                 return ResponseEntity.badRequest().body(Map.of("error", "missionId is required"));
             }
             
-            // Generate token for specific mission channel
+            // Only for a mission the caller is on
             String channel = "missions:" + missionId.trim();
+            if (!(authentication.getPrincipal() instanceof UserPrincipal principal)
+                    || !entitlements.canSubscribe(principal.getUser(), channel)) {
+                return ResponseEntity.status(403).body(Map.of("error", "Not allowed to subscribe to " + channel));
+            }
             String token = centrifugoTokenService.issueSubscriptionToken(userId, channel);
             return ResponseEntity.ok(Map.of("subscriptionToken", token));
         } catch (Exception e) {
@@ -28,9 +28,8 @@ public class DriverRealtimeService {
         // driver-scoped channel for their inbox
         centrifugo.publish(centrifugo.driverChannel(driverId), event);
 
-        // also mirror to mission-scoped + global status so dispatcher UI updates immediately
+        // also mirror to the mission channel; dispatchers get status through status:<ownerId>
         centrifugo.publish(centrifugo.missionChannel(missionId), event);
-        centrifugo.publish(centrifugo.statusChannel(), event);
     }
 
     public void notifyMissionPickup(UUID missionId, UUID driverId) {
@@ -1,63 +1,130 @@
 // src/main/java/org/example/realtime/CentrifugoClient.java
 package org.example.realtime;
 
+import org.example.realtime.event.AssignmentEvent;
+import org.example.realtime.event.LocationEvent;
+import org.example.realtime.event.StatusEvent;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.core.JsonProcessingException;
-import org.springframework.http.MediaType;
+import jakarta.annotation.PreDestroy;
 import org.springframework.stereotype.Component;
-import org.springframework.web.client.RestClient;
 
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
 
 @Component
 public class CentrifugoClient {
     private static final Logger log = LoggerFactory.getLogger(CentrifugoClient.class);
-    private static final ObjectMapper JSON = new ObjectMapper();
 
-    private final RestClient http;
-    private final String baseUrl;
+    private final RealtimeTransport transport;
+    private final RealtimeEventEncoder encoder;
+    private final SseBroker sseBroker;
+    private final MissionEventLog eventLog;
+    private final boolean sseMode;
+    private final CentrifugoPublishQueue queue;
+    private final long shutdownTimeoutMs;
+    private final int logSampleRate;
+    private final AtomicLong logSampleCounter = new AtomicLong();
 
     public CentrifugoClient(
-            @org.springframework.beans.factory.annotation.Value("${app.centrifugo.api-base}") String baseUrl,
-            @org.springframework.beans.factory.annotation.Value("${app.centrifugo.api-key}") String apiKey
+            RealtimeTransport transport,
+            RealtimeEventEncoder encoder,
+            SseBroker sseBroker,
+            MissionEventLog eventLog,
+            @org.springframework.beans.factory.annotation.Value("${app.realtime.transport:centrifugo}") String transportMode,
+            @org.springframework.beans.factory.annotation.Value("${app.centrifugo.publish-queue.capacity:10000}") int queueCapacity,
+            @org.springframework.beans.factory.annotation.Value("${app.centrifugo.publish-queue.batch-size:100}") int batchSize,
+            @org.springframework.beans.factory.annotation.Value("${app.centrifugo.publish-queue.flush-interval-ms:20}") long flushIntervalMs,
+            @org.springframework.beans.factory.annotation.Value("${app.centrifugo.publish-queue.shutdown-timeout-ms:5000}") long shutdownTimeoutMs,
+            @org.springframework.beans.factory.annotation.Value("${app.centrifugo.log-sample-rate:100}") int logSampleRate
     ) {
-        this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
-        this.http = RestClient.builder()
-                .baseUrl(this.baseUrl)
-                .defaultHeader("Authorization", "apikey " + apiKey)
-                .build();
-    }
-
-    /* ---------------- Core HTTP publish ---------------- */
-
-    public void publish(String channel, Map<String, Object> data) {
-        try {
-            var payload = Map.of("channel", channel, "data", data);
-            // Log the payload to the console so terminal shows exact body sent to Centrifugo
-            try {
-                String json = JSON.writeValueAsString(payload);
-                // Use both SLF4J and System.out to maximize visibility in different run contexts
-                log.info("Centrifugo publish -> channel={} payload={}", channel, json);
-                System.out.println("[Centrifugo publish] channel=" + channel + " payload=" + json);
-            } catch (JsonProcessingException jpe) {
-                log.info("Centrifugo publish -> channel={} payloadMap={} (failed to serialize)", channel, payload);
-                System.out.println("[Centrifugo publish] channel=" + channel + " payloadMap=" + payload);
+        this.transport = transport;
+        this.encoder = encoder;
+        this.sseBroker = sseBroker;
+        this.eventLog = eventLog;
+        this.sseMode = "sse".equalsIgnoreCase(transportMode);
+        this.shutdownTimeoutMs = shutdownTimeoutMs;
+        this.logSampleRate = logSampleRate;
+        this.queue = new CentrifugoPublishQueue(queueCapacity, batchSize, flushIntervalMs, this::publishBatch);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        queue.shutdown(shutdownTimeoutMs);
+    }
+
+    public CentrifugoPublishQueue.Stats queueStats() {
+        return queue.stats();
+    }
+
+    /* ---------------- Core HTTP publish ----------------
+       With app.realtime.transport=sse the same calls go to the in-process SseBroker instead;
+       channels and payloads are unchanged.
+    --------------------------------------------------- */
+
+    /**
+     * Enqueue a publish; the HTTP call happens on the publisher thread, batched with
+     * whatever else is pending. Never blocks and never throws on Centrifugo failures.
+     * The event (a typed record from org.example.realtime.event or a plain map) is
+     * serialized here, once.
+     */
+    public void publish(String channel, Object event) {
+        publishEncoded(channel, encoder.encode(event));
+    }
+
+    /** Publish on missions:&lt;missionId&gt;, numbered by the mission's event log. */
+    public void publishToMission(UUID missionId, Object event) {
+        publishEncoded(missionChannel(missionId), eventLog.record(missionId, encoder.encode(event)));
+    }
+
+    /** Enqueue an already-encoded JSON event. */
+    public void publishEncoded(String channel, byte[] json) {
+        logSampled(channel, json);
+        if (sseMode) {
+            sseBroker.publish(channel, json);
+            return;
+        }
+        if (!queue.offer(channel, json)) {
+            log.warn("Centrifugo publish DROPPED channel={}", channel);
+        }
+    }
+
+    /**
+     * Send several publications in one /batch round trip. Throws if the call fails, or a
+     * {@link PartialBatchException} naming the commands Centrifugo reported an error for, so
+     * callers retry only those; the others were published.
+     */
+    public void publishBatch(List<CentrifugoPublishQueue.PublishCommand> commands) {
+        if (commands == null || commands.isEmpty()) return;
+        if (sseMode) {
+            sseBroker.publishBatch(commands);
+            return;
+        }
+        Map<?, ?> response = transport.post("/batch", encoder.encodeBatch(commands), Map.class);
+        if (response != null && response.get("replies") instanceof List<?> replies) {
+            // replies come back in command order
+            List<Integer> failed = new ArrayList<>();
+            Object firstError = null;
+            for (int i = 0; i < replies.size(); i++) {
+                if (replies.get(i) instanceof Map<?, ?> r && r.get("error") != null) {
+                    failed.add(i);
+                    if (firstError == null) firstError = r.get("error");
+                }
             }
-            http.post()
-                    .uri("/publish")
-                    .contentType(MediaType.APPLICATION_JSON)
-                    .body(payload)
-                    .retrieve()
-                    .toBodilessEntity();
-            log.info("Centrifugo publish OK channel={} type={}", channel, data.get("type"));
-        } catch (Exception e) {
-            log.error("Centrifugo publish FAILED channel={} err={}", channel, e.toString());
-            throw e;
+            if (!failed.isEmpty()) throw new PartialBatchException(failed, String.valueOf(firstError));
         }
+        log.debug("Centrifugo batch publish OK size={}", commands.size());
+    }
+
+    private void logSampled(String channel, byte[] json) {
+        if (logSampleRate <= 0 || !log.isDebugEnabled()) return;
+        if (logSampleCounter.incrementAndGet() % logSampleRate != 0) return;
+        log.debug("Centrifugo publish -> channel={} payload={}", channel, new String(json, StandardCharsets.UTF_8));
     }
 
     /* ---------------- Channel helpers ---------------- */
@@ -70,20 +137,23 @@ public class CentrifugoClient {
         return "drivers:" + driverId;
     }
 
-    public String statusChannel() {
-        return "status";
+    /** Coalesced status-diff frames for one owner's missions (see OwnerStatusStream). */
+    public String ownerStatusChannel(UUID ownerId) {
+        return "status:" + ownerId;
     }
 
     /* ---------------- Unified mission event pipeline ----------------
        One channel per mission: missions:<missionId>.
-       Event schema matches mobile/web:
+       Event schema matches mobile/web (see org.example.realtime.event):
        {
          "type": "location" | "status" | "assignment",
          "missionId": "<uuid>",
          "driverId": "<uuid>",
+         "seq": <long>,                // per mission, +1 per event; see GET /missions/{id}/events
          "at": "<epoch_ms_string>",
          // location fields
          "lat": <double>, "lng": <double>, "accuracy": <float>,
+         "eta": "<epoch_ms_string>",   // location + status, when known
          // status fields
          "status": "ASSIGNED|PICKED_UP|IN_TRANSIT|DELIVERED|CANCELLED",
          "assignedAt": "...", "pickedUpAt": "...", "inTransitAt": "...", "deliveredAt": "..."
@@ -95,20 +165,18 @@ public class CentrifugoClient {
         Map<String, Object> ev = new HashMap<>(event != null ? event : Map.of());
         ev.putIfAbsent("missionId", missionId.toString());
         ev.putIfAbsent("at", String.valueOf(System.currentTimeMillis()));
-        publish(missionChannel(missionId), ev);
+        publishToMission(missionId, ev);
     }
 
     public void publishMissionLocation(UUID missionId, UUID driverId, double lat, double lng, float accuracy) {
+        publishMissionLocation(missionId, driverId, lat, lng, accuracy, null, System.currentTimeMillis());
+    }
+
+    /** Location fix with the time it was taken on the device and the current ETA (epoch ms, nullable). */
+    public void publishMissionLocation(UUID missionId, UUID driverId, double lat, double lng, float accuracy,
+                                       Long eta, long at) {
         if (missionId == null) return;
-        Map<String, Object> ev = new HashMap<>();
-        ev.put("type", "location");
-        ev.put("missionId", missionId.toString());
-        if (driverId != null) ev.put("driverId", driverId.toString());
-        ev.put("lat", lat);
-        ev.put("lng", lng);
-        ev.put("accuracy", accuracy);
-        ev.put("at", String.valueOf(System.currentTimeMillis()));
-        publish(missionChannel(missionId), ev);
+        publishToMission(missionId, new LocationEvent(missionId, driverId, lat, lng, accuracy, eta, at));
     }
 
     public void publishMissionStatus(
@@ -121,40 +189,27 @@ public class CentrifugoClient {
             String deliveredAt
     ) {
         if (missionId == null || status == null) return;
-        Map<String, Object> ev = new HashMap<>();
-        ev.put("type", "status");
-        ev.put("missionId", missionId.toString());
-        if (driverId != null) ev.put("driverId", driverId.toString());
-        ev.put("status", status);
-        if (assignedAt != null)  ev.put("assignedAt", assignedAt);
-        if (pickedUpAt != null)  ev.put("pickedUpAt", pickedUpAt);
-        if (inTransitAt != null) ev.put("inTransitAt", inTransitAt);
-        if (deliveredAt != null) ev.put("deliveredAt", deliveredAt);
-        ev.put("at", String.valueOf(System.currentTimeMillis()));
-        publish(missionChannel(missionId), ev);
+        publishToMission(missionId,
+                missionStatusEvent(missionId, driverId, status, assignedAt, pickedUpAt, inTransitAt, deliveredAt, null));
+    }
+
+    public StatusEvent missionStatusEvent(
+            UUID missionId,
+            UUID driverId,
+            String status,
+            String assignedAt,
+            String pickedUpAt,
+            String inTransitAt,
+            String deliveredAt,
+            String eta
+    ) {
+        return new StatusEvent(missionId, driverId, status, assignedAt, pickedUpAt, inTransitAt, deliveredAt,
+                eta, null, System.currentTimeMillis());
     }
 
     public void publishMissionAssigned(UUID missionId, UUID driverId, String initialStatus) {
         if (missionId == null) return;
-        Map<String, Object> ev = new HashMap<>();
-        ev.put("type", "assignment");
-        ev.put("missionId", missionId.toString());
-        if (driverId != null) ev.put("driverId", driverId.toString());
-        if (initialStatus != null) ev.put("status", initialStatus);
-        ev.put("at", String.valueOf(System.currentTimeMillis()));
-        publish(missionChannel(missionId), ev);
-    }
-
-    /* ---------------- Optional: broadcast to global status stream ---------------- */
-
-    public void publishGlobalStatus(UUID missionId, UUID driverId, String status) {
-        if (status == null) return;
-        Map<String, Object> ev = new HashMap<>();
-        ev.put("type", "status");
-        if (missionId != null) ev.put("missionId", missionId.toString());
-        if (driverId != null)  ev.put("driverId", driverId.toString());
-        ev.put("status", status);
-        ev.put("at", String.valueOf(System.currentTimeMillis()));
-        publish(statusChannel(), ev);
+        publishToMission(missionId, new AssignmentEvent(
+                missionId, driverId, null, initialStatus, null, null, null, System.currentTimeMillis()));
     }
 }
@@ -0,0 +1,82 @@
+package org.example.realtime;
+
+import org.example.shared.security.UserPrincipal;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Map;
+
+/**
+ * Centrifugo connect/subscribe proxy (Centrifugo calls these instead of clients presenting JWTs).
+ *
+ * Connect: Centrifugo forwards the client's Authorization header, which JwtAuthenticationFilter
+ * has already resolved; the Centrifugo user becomes our user id. Subscribe: the channel is checked
+ * against {@link RealtimeEntitlements}, an in-memory lookup. Centrifugo must send the shared
+ * secret in X-Centrifugo-Proxy-Secret (configure it under proxy_http_headers / static headers);
+ * without a configured secret the endpoints refuse everything.
+ */
+@RestController
+@RequestMapping("/centrifugo")
+public class CentrifugoProxyController {
+    private static final Logger log = LoggerFactory.getLogger(CentrifugoProxyController.class);
+
+    // Centrifugo built-in client error codes
+    private static final Map<String, Object> UNAUTHORIZED =
+            Map.of("error", Map.of("code", 101, "message", "unauthorized"));
+    private static final Map<String, Object> PERMISSION_DENIED =
+            Map.of("error", Map.of("code", 103, "message", "permission denied"));
+
+    public record SubscribeRequest(String client, String user, String channel) {}
+
+    private final RealtimeEntitlements entitlements;
+    private final byte[] secret;
+
+    public CentrifugoProxyController(
+            RealtimeEntitlements entitlements,
+            @Value("${app.centrifugo.proxy.secret:}") String secret
+    ) {
+        this.entitlements = entitlements;
+        this.secret = secret.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @PostMapping("/connect")
+    public Map<String, Object> connect(@RequestHeader(name = "X-Centrifugo-Proxy-Secret", required = false) String proxySecret) {
+        checkSecret(proxySecret);
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        if (auth == null || !(auth.getPrincipal() instanceof UserPrincipal principal)) {
+            return UNAUTHORIZED;
+        }
+        return Map.of("result", Map.of("user", principal.getUser().getId().toString()));
+    }
+
+    @PostMapping("/subscribe")
+    public Map<String, Object> subscribe(@RequestHeader(name = "X-Centrifugo-Proxy-Secret", required = false) String proxySecret,
+                                         @RequestBody SubscribeRequest req) {
+        checkSecret(proxySecret);
+        if (req == null || !entitlements.canSubscribe(req.user(), req.channel())) {
+            log.debug("Centrifugo subscribe denied user={} channel={}",
+                    req != null ? req.user() : null, req != null ? req.channel() : null);
+            return PERMISSION_DENIED;
+        }
+        return Map.of("result", Map.of());
+    }
+
+    private void checkSecret(String provided) {
+        if (secret.length == 0 || provided == null
+                || !MessageDigest.isEqual(secret, provided.getBytes(StandardCharsets.UTF_8))) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Invalid proxy secret");
+        }
+    }
+}
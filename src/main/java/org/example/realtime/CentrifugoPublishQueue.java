@@ -0,0 +1,160 @@
+package org.example.realtime;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Bounded in-memory queue between request threads and Centrifugo.
+ *
+ * Callers only enqueue; a single drainer thread coalesces pending messages into batches
+ * and hands them to the sender (a Centrifugo /batch call). A batch is flushed as soon as
+ * it reaches {@code batchSize} messages or {@code flushIntervalMs} after its first message,
+ * whichever comes first. When the queue is full, new messages are dropped and counted
+ * instead of blocking the caller.
+ */
+public class CentrifugoPublishQueue {
+    private static final Logger log = LoggerFactory.getLogger(CentrifugoPublishQueue.class);
+    private static final long DROP_LOG_INTERVAL_MS = 10_000;
+
+    /** A publication whose data is the already-encoded JSON event. */
+    public record PublishCommand(String channel, byte[] data) {}
+
+    public record Stats(long enqueued, long published, long queueFull, long dropped, long failedBatches, int pending) {}
+
+    private final BlockingQueue<PublishCommand> queue;
+    private final Consumer<List<PublishCommand>> sender;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+    private final Thread drainer;
+
+    private final AtomicLong enqueued = new AtomicLong();
+    private final AtomicLong published = new AtomicLong();
+    private final AtomicLong queueFull = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong failedBatches = new AtomicLong();
+
+    private volatile boolean accepting = true;
+    private volatile boolean running = true;
+    private volatile long lastDropLogAt = 0;
+
+    public CentrifugoPublishQueue(int capacity, int batchSize, long flushIntervalMs,
+                                  Consumer<List<PublishCommand>> sender) {
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, capacity));
+        this.batchSize = Math.max(1, batchSize);
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, flushIntervalMs));
+        this.sender = sender;
+        this.drainer = new Thread(this::drainLoop, "centrifugo-publisher");
+        this.drainer.setDaemon(true);
+        this.drainer.start();
+    }
+
+    /** Enqueue a message without blocking. Returns false if it was dropped. */
+    public boolean offer(String channel, byte[] data) {
+        if (!accepting) {
+            dropped.incrementAndGet();
+            return false;
+        }
+        if (!queue.offer(new PublishCommand(channel, data))) {
+            queueFull.incrementAndGet();
+            dropped.incrementAndGet();
+            logDrops();
+            return false;
+        }
+        enqueued.incrementAndGet();
+        return true;
+    }
+
+    public Stats stats() {
+        return new Stats(enqueued.get(), published.get(), queueFull.get(), dropped.get(),
+                failedBatches.get(), queue.size());
+    }
+
+    /**
+     * Stop accepting new messages and wait up to {@code timeoutMs} for the drainer to flush
+     * what is already queued. Anything still pending after the timeout is counted as dropped.
+     */
+    public void shutdown(long timeoutMs) {
+        accepting = false;
+        running = false;
+        try {
+            drainer.join(Math.max(1, timeoutMs));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (drainer.isAlive()) {
+            drainer.interrupt();
+        }
+        int leftover = queue.size();
+        if (leftover > 0) {
+            queue.clear();
+            dropped.addAndGet(leftover);
+        }
+        log.info("Centrifugo publish queue stopped stats={}", stats());
+    }
+
+    /* ---------------- Drainer ---------------- */
+
+    private void drainLoop() {
+        List<PublishCommand> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                PublishCommand first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) continue;
+                batch.add(first);
+                queue.drainTo(batch, batchSize - batch.size());
+
+                // Linger briefly so bursts (e.g. mission + driver + status fan-out) share one call
+                long deadline = System.nanoTime() + flushIntervalNanos;
+                while (running && batch.size() < batchSize) {
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) break;
+                    PublishCommand next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) break;
+                    batch.add(next);
+                    queue.drainTo(batch, batchSize - batch.size());
+                }
+                flush(batch);
+            } catch (InterruptedException e) {
+                // interrupted at shutdown while holding a batch: it will never be sent
+                dropped.addAndGet(batch.size());
+                if (!running) break;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void flush(List<PublishCommand> batch) {
+        if (batch.isEmpty()) return;
+        try {
+            sender.accept(List.copyOf(batch));
+            published.addAndGet(batch.size());
+        } catch (PartialBatchException e) {
+            failedBatches.incrementAndGet();
+            published.addAndGet(batch.size() - e.failed().size());
+            dropped.addAndGet(e.failed().size());
+            log.error("Centrifugo batch publish partly FAILED size={} failed={} err={}",
+                    batch.size(), e.failed().size(), e.getMessage());
+        } catch (Exception e) {
+            failedBatches.incrementAndGet();
+            dropped.addAndGet(batch.size());
+            log.error("Centrifugo batch publish FAILED size={} err={}", batch.size(), e.toString());
+        }
+    }
+
+    private void logDrops() {
+        long now = System.currentTimeMillis();
+        if (now - lastDropLogAt >= DROP_LOG_INTERVAL_MS) {
+            lastDropLogAt = now;
+            log.warn("Centrifugo publish queue full, dropping messages stats={}", stats());
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package org.example.realtime;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Minimal consecutive-failure circuit breaker.
+ *
+ * CLOSED: calls go through; after {@code failureThreshold} consecutive failures it opens.
+ * OPEN: calls are rejected immediately until {@code openMillis} have elapsed.
+ * HALF_OPEN: a single trial call is let through; success closes, failure re-opens.
+ */
+public class CircuitBreaker {
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final int failureThreshold;
+    private final long openMillis;
+
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private final AtomicLong openedAt = new AtomicLong(0);
+    private volatile State state = State.CLOSED;
+
+    public CircuitBreaker(int failureThreshold, long openMillis) {
+        this.failureThreshold = Math.max(1, failureThreshold);
+        this.openMillis = Math.max(0, openMillis);
+    }
+
+    /** Returns true if a call may proceed now. */
+    public synchronized boolean tryAcquire() {
+        if (state == State.CLOSED) return true;
+        if (state == State.OPEN && System.currentTimeMillis() - openedAt.get() >= openMillis) {
+            state = State.HALF_OPEN;
+            return true;
+        }
+        return false;
+    }
+
+    public synchronized void onSuccess() {
+        consecutiveFailures.set(0);
+        state = State.CLOSED;
+    }
+
+    public synchronized void onFailure() {
+        if (state == State.HALF_OPEN || consecutiveFailures.incrementAndGet() >= failureThreshold) {
+            state = State.OPEN;
+            openedAt.set(System.currentTimeMillis());
+        }
+    }
+
+    public State state() {
+        return state;
+    }
+}
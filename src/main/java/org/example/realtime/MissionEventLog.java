@@ -0,0 +1,365 @@
+package org.example.realtime;
+
+import org.example.shared.datasource.ReadRouting;
+import org.example.shared.entity.MissionEventRecord;
+import org.example.shared.entity.MissionStatus;
+import org.example.shared.repository.MissionEventCounterRepository;
+import org.example.shared.repository.MissionEventRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Numbers every event published on missions:&lt;id&gt; and remembers it for gap recovery.
+ *
+ * {@link #record} assigns the mission's next sequence number and splices {@code "seq":N} into the
+ * already-encoded JSON, so clients can spot missed events. Numbers come from the mission's row in
+ * mission_event_counters, advanced atomically, so every instance can publish any mission's events
+ * and a restart never reuses a number. The last few events per mission stay in a bounded in-memory
+ * buffer; all of them are inserted into mission_events in the background, which serves requests
+ * reaching further back. The outbox relay instead reserves a number with {@link #assign} when it
+ * claims a row (in the claim's transaction), stores it on the row and reports the event with
+ * {@link #published} once delivered, so a retried publish keeps its number.
+ *
+ * Inserts are batched. A failed batch is retried row by row, so one bad row cannot hold back the
+ * others; a row failing max-attempts times, or pushed out of the bounded backlog (max-unsaved)
+ * during a long outage, is dropped and logged as a dead letter. When no row gets through at all,
+ * inserts back off exponentially. Events of missions that ended more than retention-days ago are
+ * deleted daily. Rows still waiting are written on shutdown, and gap recovery reads them from
+ * the queue rather than flushing it on the request thread.
+ */
+@Component
+public class MissionEventLog {
+    private static final Logger log = LoggerFactory.getLogger(MissionEventLog.class);
+
+    public record SequencedEvent(long seq, byte[] json) {}
+
+    /** Per-mission recent events, guarded by its own monitor. */
+    private static final class Stream {
+        long touchedAt;
+        boolean evicted;
+        final TreeMap<Long, SequencedEvent> recent = new TreeMap<>();
+    }
+
+    /** A row waiting to be inserted, with the number of times it failed on its own. */
+    private static final class Unsaved {
+        final MissionEventRecord record;
+        int attempts;
+
+        Unsaved(MissionEventRecord record) {
+            this.record = record;
+        }
+    }
+
+    private static final Set<MissionStatus> ENDED = EnumSet.of(MissionStatus.DELIVERED, MissionStatus.CANCELLED);
+    private static final int CONSECUTIVE_FAILURES_FOR_OUTAGE = 3;
+    private static final long MAX_BACKOFF_MS = 60_000;
+    private static final int PURGE_BATCH = 500;
+
+    private final MissionEventRepository repository;
+    private final MissionEventCounterRepository counters;
+    private final TransactionTemplate tx;
+    private final int recentPerMission;
+    private final long idleEvictMs;
+    private final int maxUnsaved;
+    private final int maxAttempts;
+    private final long persistIntervalMs;
+    private final int retentionDays;
+    private final ConcurrentHashMap<UUID, Stream> streams = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<Unsaved> unsaved = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger unsavedCount = new AtomicInteger();
+    private volatile List<Unsaved> inFlight = List.of(); // taken off the queue by persist, not yet stored
+    private long backoffMs;     // guarded by persist's monitor
+    private long nextPersistAt; // guarded by persist's monitor
+
+    public MissionEventLog(
+            MissionEventRepository repository,
+            MissionEventCounterRepository counters,
+            PlatformTransactionManager transactionManager,
+            @Value("${app.realtime.events.recent-per-mission:64}") int recentPerMission,
+            @Value("${app.realtime.events.idle-evict-ms:900000}") long idleEvictMs,
+            @Value("${app.realtime.events.max-unsaved:100000}") int maxUnsaved,
+            @Value("${app.realtime.events.max-attempts:5}") int maxAttempts,
+            @Value("${app.realtime.events.persist-interval-ms:1000}") long persistIntervalMs,
+            @Value("${app.realtime.events.retention-days:30}") int retentionDays
+    ) {
+        this.repository = repository;
+        this.counters = counters;
+        this.tx = new TransactionTemplate(transactionManager);
+        this.recentPerMission = Math.max(1, recentPerMission);
+        this.idleEvictMs = idleEvictMs;
+        this.maxUnsaved = Math.max(1, maxUnsaved);
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.persistIntervalMs = persistIntervalMs;
+        this.retentionDays = retentionDays;
+    }
+
+    /** Assign the next sequence number, and return the event JSON with "seq" added. */
+    public byte[] record(UUID missionId, byte[] json) {
+        long seq = next(missionId);
+        byte[] stamped = stamp(json, seq);
+        published(missionId, seq, stamped);
+        return stamped;
+    }
+
+    /**
+     * Reserve the mission's next sequence number for an event published later (the outbox relay
+     * numbers a row when it claims it, and keeps that number across publish retries). Joins the
+     * caller's transaction, so a rolled-back claim gives the number back. The event becomes visible
+     * to {@link #since} once passed to {@link #published}.
+     */
+    public long assign(UUID missionId) {
+        return next(missionId);
+    }
+
+    /** An event numbered with {@link #assign} went out; {@code stamped} is its JSON with "seq". */
+    public void published(UUID missionId, long seq, byte[] stamped) {
+        withStream(missionId, stream -> {
+            remember(missionId, stream, seq, stamped);
+            return null;
+        });
+    }
+
+    /** The event JSON with {@code "seq":N} added as its first field. */
+    public static byte[] stamp(byte[] json, long seq) {
+        return withSeq(json, seq);
+    }
+
+    private <T> T withStream(UUID missionId, Function<Stream, T> action) {
+        while (true) {
+            Stream stream = streams.computeIfAbsent(missionId, id -> new Stream());
+            synchronized (stream) {
+                if (stream.evicted) continue; // lost a race with evictIdle; take the fresh one
+                stream.touchedAt = System.currentTimeMillis();
+                return action.apply(stream);
+            }
+        }
+    }
+
+    // the counter row stays locked until the transaction ends, which orders concurrent publishers
+    private long next(UUID missionId) {
+        return tx.execute(status -> {
+            counters.advance(missionId);
+            return counters.lastInsertId().longValue();
+        });
+    }
+
+    // caller holds the stream's monitor; events may arrive out of seq order (relay vs location)
+    private void remember(UUID missionId, Stream stream, long seq, byte[] stamped) {
+        if (stream.recent.containsKey(seq)) return; // republished after a lost delete: already kept
+        stream.recent.put(seq, new SequencedEvent(seq, stamped));
+        if (stream.recent.size() > recentPerMission) stream.recent.pollFirstEntry();
+        enqueue(new Unsaved(new MissionEventRecord(missionId, seq, new String(stamped, StandardCharsets.UTF_8))));
+    }
+
+    /** Events with seq &gt; afterSeq, oldest first, at most limit of them. */
+    public List<SequencedEvent> since(UUID missionId, long afterSeq, int limit) {
+        Stream stream = streams.get(missionId);
+        if (stream != null) {
+            synchronized (stream) {
+                List<SequencedEvent> recent = contiguous(stream.recent, afterSeq, limit);
+                if (recent != null) return recent;
+            }
+        }
+        // stored rows, plus this instance's rows still waiting for their insert
+        TreeMap<Long, SequencedEvent> merged = new TreeMap<>();
+        List<MissionEventRecord> stored = ReadRouting.onPrimary(() ->
+                repository.findByMissionIdAndSeqGreaterThanOrderBySeqAsc(missionId, afterSeq, PageRequest.of(0, limit)));
+        for (MissionEventRecord r : stored) merged.put(r.getSeq(), toEvent(r));
+        for (Unsaved u : inFlight) addWaiting(merged, u.record, missionId, afterSeq);
+        for (Unsaved u : unsaved) addWaiting(merged, u.record, missionId, afterSeq);
+        List<SequencedEvent> out = new ArrayList<>(Math.min(limit, merged.size()));
+        for (SequencedEvent e : merged.values()) {
+            if (out.size() == limit) break;
+            out.add(e);
+        }
+        return out;
+    }
+
+    /** Latest published sequence number, or 0 if the mission has no events. */
+    public long lastSeq(UUID missionId) {
+        long last = 0;
+        Stream stream = streams.get(missionId);
+        if (stream != null) {
+            synchronized (stream) {
+                if (!stream.recent.isEmpty()) last = stream.recent.lastKey();
+            }
+        }
+        // other instances publish too: what they stored may be newer than this buffer
+        Long stored = ReadRouting.onPrimary(() -> repository.findMaxSeq(missionId));
+        return Math.max(last, stored != null ? stored : 0);
+    }
+
+    @Scheduled(fixedDelayString = "${app.realtime.events.persist-interval-ms:1000}")
+    public synchronized void persist() {
+        if (unsaved.isEmpty() || System.currentTimeMillis() < nextPersistAt) return;
+        persistBatch();
+    }
+
+    /** Delete the stored events of missions that ended more than retention-days ago. */
+    @Scheduled(cron = "${app.realtime.events.retention-cron:0 30 3 * * *}")
+    public void purgeEnded() {
+        if (retentionDays <= 0) return;
+        Instant cutoff = Instant.now().minus(Duration.ofDays(retentionDays));
+        int missions = 0;
+        int events = 0;
+        while (true) {
+            List<UUID> ids = repository.findEndedMissionIds(ENDED, cutoff, PageRequest.of(0, PURGE_BATCH));
+            if (ids.isEmpty()) break;
+            events += tx.execute(status -> repository.deleteByMissionIds(ids));
+            missions += ids.size();
+        }
+        if (missions > 0) log.info("Purged mission events missions={} events={} olderThanDays={}", missions, events, retentionDays);
+    }
+
+    @Scheduled(fixedDelayString = "${app.realtime.events.idle-evict-ms:900000}")
+    public void evictIdle() {
+        long cutoff = System.currentTimeMillis() - idleEvictMs;
+        streams.entrySet().removeIf(e -> {
+            synchronized (e.getValue()) {
+                if (e.getValue().touchedAt >= cutoff) return false;
+                e.getValue().evicted = true;
+                return true;
+            }
+        });
+    }
+
+    /** Write what is still waiting before the application stops; published events must stay recoverable. */
+    @PreDestroy
+    public synchronized void flush() {
+        while (!unsaved.isEmpty()) {
+            int before = unsavedCount.get();
+            persistBatch();
+            if (unsavedCount.get() >= before) break; // no progress: the database is unreachable
+        }
+        for (Unsaved u; (u = unsaved.poll()) != null; ) {
+            unsavedCount.decrementAndGet();
+            deadLetter(u.record, "shutdown");
+        }
+    }
+
+    /* ======================= Helpers ======================= */
+
+    // caller holds persist's monitor
+    private void persistBatch() {
+        List<Unsaved> batch = new ArrayList<>();
+        for (Unsaved u; (u = unsaved.poll()) != null; ) {
+            unsavedCount.decrementAndGet();
+            batch.add(u);
+        }
+        inFlight = batch;
+        try {
+            persistRows(batch);
+        } finally {
+            inFlight = List.of();
+        }
+    }
+
+    private void persistRows(List<Unsaved> batch) {
+        try {
+            repository.saveAll(batch.stream().map(u -> u.record).toList());
+            backoffMs = 0;
+            return;
+        } catch (Exception e) {
+            log.warn("Mission event batch persist failed size={} err={}; retrying row by row", batch.size(), e.toString());
+        }
+
+        // row by row: good rows go in, bad ones use up attempts; a run of failures with no
+        // success means the database is down, so the rest is re-queued untouched
+        int saved = 0;
+        int failedInARow = 0;
+        for (int i = 0; i < batch.size(); i++) {
+            Unsaved u = batch.get(i);
+            if (saved == 0 && failedInARow >= CONSECUTIVE_FAILURES_FOR_OUTAGE) {
+                for (Unsaved rest : batch.subList(i, batch.size())) enqueue(rest);
+                break;
+            }
+            try {
+                repository.save(u.record);
+                saved++;
+                failedInARow = 0;
+            } catch (Exception e) {
+                failedInARow++;
+                if (++u.attempts >= maxAttempts) deadLetter(u.record, e.toString());
+                else enqueue(u);
+            }
+        }
+        if (saved > 0) {
+            backoffMs = 0;
+        } else {
+            backoffMs = Math.min(MAX_BACKOFF_MS, Math.max(persistIntervalMs, backoffMs * 2));
+            nextPersistAt = System.currentTimeMillis() + backoffMs;
+        }
+    }
+
+    // the events after afterSeq from the buffer, or null if it cannot tell: it starts later, or misses
+    // a number (published by another instance) in between
+    private static List<SequencedEvent> contiguous(TreeMap<Long, SequencedEvent> recent, long afterSeq, int limit) {
+        if (recent.isEmpty() || recent.firstKey() > afterSeq + 1) return null;
+        List<SequencedEvent> out = new ArrayList<>();
+        long expected = afterSeq + 1;
+        for (SequencedEvent e : recent.tailMap(afterSeq, false).values()) {
+            if (out.size() == limit) break;
+            if (e.seq() != expected) return null;
+            out.add(e);
+            expected++;
+        }
+        return out;
+    }
+
+    private static void addWaiting(TreeMap<Long, SequencedEvent> merged, MissionEventRecord r, UUID missionId, long afterSeq) {
+        if (r.getSeq() > afterSeq && missionId.equals(r.getMissionId())) merged.putIfAbsent(r.getSeq(), toEvent(r));
+    }
+
+    private static SequencedEvent toEvent(MissionEventRecord r) {
+        return new SequencedEvent(r.getSeq(), r.getPayload().getBytes(StandardCharsets.UTF_8));
+    }
+
+    // bounded: past max-unsaved the oldest waiting row is dropped (still in the recent buffers)
+    private void enqueue(Unsaved u) {
+        unsaved.add(u);
+        if (unsavedCount.incrementAndGet() > maxUnsaved) {
+            Unsaved dropped = unsaved.poll();
+            if (dropped != null) {
+                unsavedCount.decrementAndGet();
+                deadLetter(dropped.record, "backlog full");
+            }
+        }
+    }
+
+    private static void deadLetter(MissionEventRecord r, String reason) {
+        String payload = r.getPayload();
+        log.error("Mission event dropped missionId={} seq={} reason={} payload={}", r.getMissionId(), r.getSeq(),
+                reason, payload.length() > 512 ? payload.substring(0, 512) + "..." : payload);
+    }
+
+    // {"type":...} -> {"seq":N,"type":...}; every event is a non-empty JSON object
+    private static byte[] withSeq(byte[] json, long seq) {
+        byte[] field = ("\"seq\":" + seq + ",").getBytes(StandardCharsets.US_ASCII);
+        byte[] out = new byte[json.length + field.length];
+        out[0] = json[0];
+        System.arraycopy(field, 0, out, 1, field.length);
+        System.arraycopy(json, 1, out, 1 + field.length, json.length - 1);
+        return out;
+    }
+}
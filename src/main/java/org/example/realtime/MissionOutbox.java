@@ -0,0 +1,34 @@
+package org.example.realtime;
+
+import org.example.shared.entity.MissionOutboxEvent;
+import org.example.shared.repository.MissionOutboxRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+/**
+ * Records realtime publications inside the caller's transaction, so an event is only ever
+ * sent for a mission change that actually committed. {@link MissionOutboxRelay} delivers them.
+ */
+@Service
+public class MissionOutbox {
+    private final MissionOutboxRepository outboxRepository;
+    private final RealtimeEventEncoder encoder;
+
+    public MissionOutbox(MissionOutboxRepository outboxRepository, RealtimeEventEncoder encoder) {
+        this.outboxRepository = outboxRepository;
+        this.encoder = encoder;
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void append(UUID missionId, String channel, Object event) {
+        MissionOutboxEvent row = new MissionOutboxEvent();
+        row.setMissionId(missionId);
+        row.setChannel(channel);
+        row.setPayload(new String(encoder.encode(event), StandardCharsets.UTF_8));
+        outboxRepository.save(row);
+    }
+}
@@ -0,0 +1,137 @@
+package org.example.realtime;
+
+import org.example.shared.entity.MissionOutboxEvent;
+import org.example.shared.repository.MissionOutboxRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Drains {@code mission_outbox} to Centrifugo.
+ *
+ * Each round takes the oldest rows as one page: a short transaction locks and leases them and
+ * commits, the page goes out as one /batch call (which Centrifugo applies in order) with no
+ * transaction or row lock held, and a second short transaction deletes the published rows. Pages
+ * are always taken from the front of the table and a relay backs off while another one's lease
+ * is live there, so events for a mission are never reordered across instances. On failure the
+ * lease is released and the page is retried on the next poll; a relay that dies mid-publish loses
+ * its lease after lease-ms (at-least-once: clients must tolerate duplicates, which they already
+ * do for status events). Events on a mission's own channel are numbered when first claimed and keep
+ * that number on every retry, so clients can de-duplicate them by seq.
+ */
+@Component
+public class MissionOutboxRelay {
+    private static final Logger log = LoggerFactory.getLogger(MissionOutboxRelay.class);
+
+    private final MissionOutboxRepository outboxRepository;
+    private final CentrifugoClient centrifugo;
+    private final MissionEventLog eventLog;
+    private final TransactionTemplate tx;
+    private final int batchSize;
+    private final long leaseMs;
+    private final String relayId = UUID.randomUUID().toString();
+
+    public MissionOutboxRelay(
+            MissionOutboxRepository outboxRepository,
+            CentrifugoClient centrifugo,
+            MissionEventLog eventLog,
+            PlatformTransactionManager transactionManager,
+            @Value("${app.centrifugo.outbox.batch-size:100}") int batchSize,
+            @Value("${app.centrifugo.outbox.lease-ms:60000}") long leaseMs
+    ) {
+        this.outboxRepository = outboxRepository;
+        this.centrifugo = centrifugo;
+        this.eventLog = eventLog;
+        this.tx = new TransactionTemplate(transactionManager);
+        this.batchSize = Math.max(1, batchSize);
+        this.leaseMs = leaseMs;
+    }
+
+    @Scheduled(fixedDelayString = "${app.centrifugo.outbox.poll-interval-ms:200}")
+    public void relay() {
+        try {
+            while (relayPage()) {
+                // full page: more rows may be waiting
+            }
+        } catch (Exception e) {
+            log.warn("Mission outbox relay stopped err={}", e.toString());
+        }
+    }
+
+    /** Claim, publish and delete one page; true if it was full. */
+    private boolean relayPage() {
+        List<MissionOutboxEvent> page = tx.execute(status -> claim());
+        if (page == null || page.isEmpty()) return false;
+        List<Long> ids = page.stream().map(MissionOutboxEvent::getId).toList();
+
+        List<CentrifugoPublishQueue.PublishCommand> commands = new ArrayList<>(page.size());
+        for (MissionOutboxEvent e : page) {
+            byte[] data = e.getPayload().getBytes(StandardCharsets.UTF_8);
+            if (e.getSeq() != null) data = MissionEventLog.stamp(data, e.getSeq());
+            commands.add(new CentrifugoPublishQueue.PublishCommand(e.getChannel(), data));
+        }
+        Set<Integer> failed = Set.of();
+        try {
+            centrifugo.publishBatch(commands);
+        } catch (PartialBatchException e) {
+            failed = Set.copyOf(e.failed());
+        } catch (RuntimeException e) {
+            tx.executeWithoutResult(status -> outboxRepository.releaseLease(ids, relayId));
+            throw e;
+        }
+        // rows Centrifugo rejected keep their seq and go back to the table for the next poll
+        List<Long> sent = new ArrayList<>(page.size());
+        List<Long> retry = new ArrayList<>(failed.size());
+        for (int i = 0; i < page.size(); i++) {
+            MissionOutboxEvent e = page.get(i);
+            if (failed.contains(i)) {
+                retry.add(e.getId());
+                continue;
+            }
+            sent.add(e.getId());
+            if (e.getSeq() != null) eventLog.published(e.getMissionId(), e.getSeq(), commands.get(i).data());
+        }
+        tx.executeWithoutResult(status -> {
+            if (!sent.isEmpty()) outboxRepository.deleteLeased(sent, relayId);
+            if (!retry.isEmpty()) outboxRepository.releaseLease(retry, relayId);
+        });
+        if (!retry.isEmpty()) {
+            log.warn("Mission outbox publish partly failed size={} failed={}", page.size(), retry.size());
+            return false;
+        }
+        return page.size() == batchSize;
+    }
+
+    /** Lease the oldest rows to this relay; empty if there are none or another relay holds them. */
+    private List<MissionOutboxEvent> claim() {
+        List<MissionOutboxEvent> page = outboxRepository.findOldestForUpdate(PageRequest.of(0, batchSize));
+        if (page.isEmpty()) return page;
+        Instant now = Instant.now();
+        MissionOutboxEvent head = page.get(0);
+        if (head.getLeaseUntil() != null && head.getLeaseUntil().isAfter(now)
+                && !relayId.equals(head.getLeaseOwner())) return List.of();
+        Instant until = now.plusMillis(leaseMs);
+        for (MissionOutboxEvent e : page) {
+            e.setLeaseOwner(relayId);
+            e.setLeaseUntil(until);
+            // events on the mission's own channel are numbered once, in relay order, and keep it on retry
+            if (e.getSeq() == null && e.getMissionId() != null
+                    && e.getChannel().equals(centrifugo.missionChannel(e.getMissionId()))) {
+                e.setSeq(eventLog.assign(e.getMissionId()));
+            }
+        }
+        return page;
+    }
+}
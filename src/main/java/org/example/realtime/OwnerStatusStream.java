@@ -0,0 +1,54 @@
+package org.example.realtime;
+
+import org.example.realtime.event.StatusDiffEvent;
+import org.example.shared.transaction.AfterCommit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-owner status feed replacing the global "status" broadcast.
+ *
+ * Committed status changes are parked per owner, latest-wins per mission, and every tick each
+ * owner with pending changes gets one status-diff frame on status:&lt;ownerId&gt;. A dispatcher
+ * therefore only receives its own missions, and a burst of transitions becomes a single frame.
+ * Frames are a live convenience; the durable per-mission status events still go through the outbox.
+ */
+@Component
+public class OwnerStatusStream {
+
+    private final CentrifugoClient centrifugo;
+    // owner -> (mission -> latest change); an inner map is only touched inside compute on its key,
+    // and flush takes it out with remove, so a change lands either in this frame or the next
+    private final ConcurrentHashMap<UUID, Map<UUID, StatusDiffEvent.Change>> pending = new ConcurrentHashMap<>();
+
+    public OwnerStatusStream(CentrifugoClient centrifugo) {
+        this.centrifugo = centrifugo;
+    }
+
+    /** Queue a status change for the owner's next frame once the current transaction commits. */
+    public void record(UUID ownerId, UUID missionId, UUID driverId, String status) {
+        if (ownerId == null || missionId == null || status == null) return;
+        StatusDiffEvent.Change change = new StatusDiffEvent.Change(missionId, driverId, status, System.currentTimeMillis());
+        AfterCommit.run(() -> pending.compute(ownerId, (o, changes) -> {
+            Map<UUID, StatusDiffEvent.Change> next = changes != null ? changes : new LinkedHashMap<>();
+            next.put(missionId, change);
+            return next;
+        }));
+    }
+
+    @Scheduled(fixedDelayString = "${app.realtime.status.coalesce-ms:250}")
+    public void flush() {
+        for (UUID ownerId : pending.keySet()) {
+            Map<UUID, StatusDiffEvent.Change> changes = pending.remove(ownerId);
+            if (changes == null || changes.isEmpty()) continue;
+            centrifugo.publish(centrifugo.ownerStatusChannel(ownerId),
+                    new StatusDiffEvent(ownerId, new ArrayList<>(changes.values()), System.currentTimeMillis()));
+        }
+    }
+}
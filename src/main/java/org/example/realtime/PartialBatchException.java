@@ -0,0 +1,18 @@
+package org.example.realtime;
+
+import java.util.List;
+
+/** Thrown when Centrifugo accepted a /batch call but reported an error for some of its commands. */
+public class PartialBatchException extends RuntimeException {
+    private final List<Integer> failed;
+
+    public PartialBatchException(List<Integer> failed, String firstError) {
+        super(failed.size() + " batch command(s) failed, first error: " + firstError);
+        this.failed = List.copyOf(failed);
+    }
+
+    /** Indexes, in the order sent, of the commands that were not published. */
+    public List<Integer> failed() {
+        return failed;
+    }
+}
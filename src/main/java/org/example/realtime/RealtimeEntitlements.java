@@ -0,0 +1,208 @@
+package org.example.realtime;
+
+import org.example.shared.datasource.ReadRouting;
+import org.example.shared.entity.Mission;
+import org.example.shared.entity.MissionStatus;
+import org.example.shared.entity.User;
+import org.example.shared.entity.UserRole;
+import org.example.shared.repository.MissionRepository;
+import org.example.shared.repository.UserRepository;
+import org.example.shared.transaction.AfterCommit;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Channels a user may subscribe to.
+ *
+ * Drivers: their assignment feed (missions:&lt;driverId&gt;), their location channel and every
+ * mission they are currently on. Dispatchers: the assignment
+ * broadcast, their own status:&lt;ownerId&gt; stream and every live mission they own.
+ *
+ * Grants are cached per user (role + live mission ids, loaded with one id-only query) so that
+ * authorizing a subscription is a hash lookup. MissionService drops the grants of the driver and
+ * owner whenever a mission is created, assigned, cancelled or delivered; a TTL bounds staleness
+ * from any other path. A load that raced with an invalidation is returned but not kept. Emails
+ * used as token subjects map to user ids through a bounded cache under the same TTL.
+ */
+@Service
+public class RealtimeEntitlements {
+
+    /** Missions whose channel is still worth following. */
+    public static final Set<MissionStatus> LIVE_STATUSES = EnumSet.of(
+            MissionStatus.PENDING, MissionStatus.ASSIGNED, MissionStatus.PICKED_UP, MissionStatus.IN_TRANSIT);
+
+    private static final String ASSIGNMENTS_CHANNEL = "missions";
+    private static final String MISSION_PREFIX = "missions:";
+
+    private record Grant(UserRole role, Set<UUID> missionIds, long loadedAt) {}
+    private record KnownEmail(UUID userId, long loadedAt) {}
+
+    private final MissionRepository missionRepository;
+    private final UserRepository userRepository;
+    private final CentrifugoClient centrifugo;
+    private final long ttlMs;
+    private final ConcurrentHashMap<UUID, Grant> grants = new ConcurrentHashMap<>();
+    private final AtomicLong invalidations = new AtomicLong();
+    private final Map<String, KnownEmail> idByEmail;
+    private final List<Consumer<UUID>> invalidationListeners = new CopyOnWriteArrayList<>();
+
+    public RealtimeEntitlements(
+            MissionRepository missionRepository,
+            UserRepository userRepository,
+            CentrifugoClient centrifugo,
+            @Value("${app.centrifugo.acl.ttl-ms:300000}") long ttlMs,
+            @Value("${app.centrifugo.acl.max-emails:10000}") int maxEmails
+    ) {
+        this.missionRepository = missionRepository;
+        this.userRepository = userRepository;
+        this.centrifugo = centrifugo;
+        this.ttlMs = ttlMs;
+        this.idByEmail = Collections.synchronizedMap(new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, KnownEmail> eldest) {
+                return size() > maxEmails;
+            }
+        });
+    }
+
+    /* ======================= Query ======================= */
+
+    public List<String> channelsFor(User user) {
+        Grant grant = grantFor(user.getId(), user.getRole());
+        List<String> channels = new ArrayList<>(fixedChannels(user.getId(), grant.role()));
+        for (UUID missionId : grant.missionIds()) {
+            channels.add(centrifugo.missionChannel(missionId));
+        }
+        return channels;
+    }
+
+    public boolean canSubscribe(User user, String channel) {
+        return canSubscribe(user.getId(), user.getRole(), channel);
+    }
+
+    /**
+     * Authorize a subscription for a Centrifugo user id, which is either our user id (proxy
+     * connections) or the email used as subject in connection tokens.
+     */
+    public boolean canSubscribe(String centrifugoUser, String channel) {
+        return resolveUserId(centrifugoUser)
+                .map(id -> canSubscribe(id, null, channel))
+                .orElse(false);
+    }
+
+    /* ======================= Invalidation ======================= */
+
+    /** Forget the grants of the mission's driver and owner once the transaction commits. */
+    public void onCommitted(Mission mission) {
+        UUID driverId = mission.getDriver() != null ? mission.getDriver().getId() : null;
+        UUID ownerId = mission.getOwner() != null ? mission.getOwner().getId() : null;
+        onCommitted(driverId, ownerId);
+    }
+
+    public void onCommitted(UUID driverId, UUID ownerId) {
+        AfterCommit.run(() -> {
+            invalidate(driverId);
+            invalidate(ownerId);
+        });
+    }
+
+    public void invalidate(UUID userId) {
+        if (userId == null) return;
+        invalidations.incrementAndGet();
+        grants.remove(userId);
+        for (Consumer<UUID> listener : invalidationListeners) listener.accept(userId);
+    }
+
+    /** Called with the user's id whenever their grant is dropped, e.g. to re-check open streams. */
+    public void addInvalidationListener(Consumer<UUID> listener) {
+        invalidationListeners.add(listener);
+    }
+
+    @Scheduled(fixedDelayString = "${app.centrifugo.acl.ttl-ms:300000}")
+    public void pruneExpired() {
+        long cutoff = System.currentTimeMillis() - ttlMs;
+        grants.values().removeIf(g -> g.loadedAt() < cutoff);
+        synchronized (idByEmail) {
+            idByEmail.values().removeIf(e -> e.loadedAt() < cutoff);
+        }
+    }
+
+    /* ======================= Helpers ======================= */
+
+    private boolean canSubscribe(UUID userId, UserRole knownRole, String channel) {
+        if (channel == null) return false;
+        Grant grant = grantFor(userId, knownRole);
+        if (grant == null) return false;
+        if (fixedChannels(userId, grant.role()).contains(channel)) return true;
+        if (!channel.startsWith(MISSION_PREFIX)) return false;
+        try {
+            return grant.missionIds().contains(UUID.fromString(channel.substring(MISSION_PREFIX.length())));
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    private List<String> fixedChannels(UUID userId, UserRole role) {
+        if (role == UserRole.DRIVER) {
+            return List.of(centrifugo.missionChannel(userId), driverLocationChannel(userId));
+        }
+        return List.of(ASSIGNMENTS_CHANNEL, centrifugo.ownerStatusChannel(userId));
+    }
+
+    // role is looked up only when the caller does not already know it; null if the user is gone
+    private Grant grantFor(UUID userId, UserRole knownRole) {
+        Grant cached = grants.get(userId);
+        if (cached != null && System.currentTimeMillis() - cached.loadedAt() < ttlMs) return cached;
+        long seen = invalidations.get();
+        // on the primary: a grant loaded from a lagging replica would miss a just-assigned mission for ttl-ms
+        UserRole role = knownRole != null
+                ? knownRole
+                : ReadRouting.onPrimary(() -> userRepository.findById(userId).map(User::getRole).orElse(null));
+        if (role == null) return null;
+        Set<UUID> missionIds = ReadRouting.onPrimary(() -> {
+            // two index ranges ((owner_id, status, ...) and (driver_id, status, ...)), merged here
+            Set<UUID> ids = new HashSet<>(missionRepository.findIdsByOwner(userId, LIVE_STATUSES));
+            ids.addAll(missionRepository.findIdsByDriver(userId, LIVE_STATUSES));
+            return Set.copyOf(ids);
+        });
+        Grant loaded = new Grant(role, missionIds, System.currentTimeMillis());
+        grants.put(userId, loaded);
+        if (invalidations.get() != seen) grants.remove(userId, loaded);
+        return loaded;
+    }
+
+    private Optional<UUID> resolveUserId(String centrifugoUser) {
+        if (centrifugoUser == null || centrifugoUser.isBlank()) return Optional.empty();
+        try {
+            return Optional.of(UUID.fromString(centrifugoUser));
+        } catch (IllegalArgumentException notAnId) {
+            KnownEmail known = idByEmail.get(centrifugoUser);
+            if (known != null && System.currentTimeMillis() - known.loadedAt() < ttlMs) return Optional.of(known.userId());
+            Optional<UUID> id = ReadRouting.onPrimary(() -> userRepository.findByEmail(centrifugoUser).map(User::getId));
+            id.ifPresentOrElse(
+                    v -> idByEmail.put(centrifugoUser, new KnownEmail(v, System.currentTimeMillis())),
+                    () -> idByEmail.remove(centrifugoUser));
+            return id;
+        }
+    }
+
+    public static String driverLocationChannel(UUID driverId) {
+        return "driver-location:" + driverId;
+    }
+}
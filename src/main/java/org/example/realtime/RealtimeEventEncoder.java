@@ -0,0 +1,86 @@
+package org.example.realtime;
+
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+import com.fasterxml.jackson.core.util.ByteArrayBuilder;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+
+/**
+ * Serializes realtime events exactly once.
+ *
+ * Events are written with a pre-built {@link ObjectWriter} into a per-thread reusable buffer;
+ * the resulting bytes are what gets queued, stored in the outbox, logged and sent. Batches are
+ * framed around those bytes directly, so a payload is never re-serialized on its way out.
+ */
+@Component
+public class RealtimeEventEncoder {
+    private static final byte[] BATCH_OPEN = ascii("{\"commands\":[");
+    private static final byte[] PUBLISH_OPEN = ascii("{\"publish\":{\"channel\":\"");
+    private static final byte[] DATA_FIELD = ascii("\",\"data\":");
+    private static final byte[] PUBLISH_CLOSE = ascii("}}");
+    private static final byte[] BATCH_CLOSE = ascii("]}");
+    private static final byte[] PUBLICATION_OPEN = ascii("{\"channel\":\"");
+    private static final byte[] PUBLICATION_CLOSE = ascii("}");
+
+    private final ObjectWriter writer = new ObjectMapper().writer();
+    private final ThreadLocal<ByteArrayBuilder> buffers = ThreadLocal.withInitial(() -> new ByteArrayBuilder(1024));
+
+    /** JSON bytes of one event (a typed event record or a plain map). */
+    public byte[] encode(Object event) {
+        ByteArrayBuilder buf = buffers.get();
+        try {
+            writer.writeValue(buf, event);
+            return buf.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to encode realtime event " + event.getClass().getSimpleName(), e);
+        } finally {
+            buf.reset();
+        }
+    }
+
+    /** Centrifugo /batch body: {"commands":[{"publish":{"channel":...,"data":<event bytes>}},...]}. */
+    public byte[] encodeBatch(List<CentrifugoPublishQueue.PublishCommand> commands) {
+        ByteArrayBuilder buf = buffers.get();
+        try {
+            JsonStringEncoder quoter = JsonStringEncoder.getInstance();
+            buf.write(BATCH_OPEN);
+            for (int i = 0; i < commands.size(); i++) {
+                CentrifugoPublishQueue.PublishCommand c = commands.get(i);
+                if (i > 0) buf.append(',');
+                buf.write(PUBLISH_OPEN);
+                buf.write(quoter.quoteAsUTF8(c.channel()));
+                buf.write(DATA_FIELD);
+                buf.write(c.data());
+                buf.write(PUBLISH_CLOSE);
+            }
+            buf.write(BATCH_CLOSE);
+            return buf.toByteArray();
+        } finally {
+            buf.reset();
+        }
+    }
+
+    /** Publication as pushed over SSE: {"channel":...,"data":<event bytes>}. */
+    public byte[] encodePublication(String channel, byte[] data) {
+        ByteArrayBuilder buf = buffers.get();
+        try {
+            buf.write(PUBLICATION_OPEN);
+            buf.write(JsonStringEncoder.getInstance().quoteAsUTF8(channel));
+            buf.write(DATA_FIELD);
+            buf.write(data);
+            buf.write(PUBLICATION_CLOSE);
+            return buf.toByteArray();
+        } finally {
+            buf.reset();
+        }
+    }
+
+    private static byte[] ascii(String s) {
+        return s.getBytes(java.nio.charset.StandardCharsets.US_ASCII);
+    }
+}
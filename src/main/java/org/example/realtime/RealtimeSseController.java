@@ -0,0 +1,86 @@
+package org.example.realtime;
+
+import org.example.common.dto.SseTokenDto;
+import org.example.shared.entity.User;
+import org.example.shared.security.JwtService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * SSE endpoint of the built-in broker: GET /realtime/sse?channel=missions:&lt;id&gt;&amp;channel=status:&lt;ownerId&gt;,
+ * the latter carrying the owner's status-diff frames (see OwnerStatusStream).
+ * Without channel parameters the caller gets every channel it is entitled to (as in /realtime/bootstrap),
+ * including missions it gains later; requested channels are dropped once the caller loses them.
+ *
+ * EventSource cannot send an Authorization header: browsers first POST /realtime/sse-token and open
+ * the stream with ?token=..., a stream-only token valid for a minute.
+ *
+ * Streams only see events published by the instance serving them, so this transport requires a
+ * single application instance (see {@link SseBroker}).
+ */
+@RestController
+public class RealtimeSseController {
+
+    private final SseBroker broker;
+    private final RealtimeEntitlements entitlements;
+    private final JwtService jwtService;
+    private final boolean enabled;
+
+    public RealtimeSseController(SseBroker broker, RealtimeEntitlements entitlements, JwtService jwtService,
+                                 @Value("${app.realtime.transport:centrifugo}") String transportMode) {
+        this.broker = broker;
+        this.entitlements = entitlements;
+        this.jwtService = jwtService;
+        this.enabled = "sse".equalsIgnoreCase(transportMode);
+        if (enabled) entitlements.addInvalidationListener(broker::refresh);
+    }
+
+    @PostMapping(path = "/realtime/sse-token", produces = MediaType.APPLICATION_JSON_VALUE)
+    public SseTokenDto streamToken(@AuthenticationPrincipal(expression = "user") User user) {
+        requireEnabled();
+        return new SseTokenDto(jwtService.issueStreamToken(user), jwtService.streamTokenTtlSeconds());
+    }
+
+    @GetMapping(path = "/realtime/sse", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream(@AuthenticationPrincipal(expression = "user") User user,
+                             @RequestParam(name = "channel", required = false) List<String> channels) {
+        requireEnabled();
+        if (channels == null || channels.isEmpty()) {
+            return broker.subscribe(user.getId(), () -> new LinkedHashSet<>(entitlements.channelsFor(user)));
+        }
+        Set<String> wanted = new LinkedHashSet<>();
+        for (String channel : channels) {
+            if (!entitlements.canSubscribe(user, channel)) {
+                throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Not allowed to subscribe to " + channel);
+            }
+            wanted.add(channel);
+        }
+        return broker.subscribe(user.getId(), () -> {
+            Set<String> allowed = new LinkedHashSet<>();
+            for (String channel : wanted) {
+                if (entitlements.canSubscribe(user, channel)) allowed.add(channel);
+            }
+            return allowed;
+        });
+    }
+
+    /* ======================= Helpers ======================= */
+
+    private void requireEnabled() {
+        if (!enabled) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "SSE transport is not enabled");
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package org.example.realtime;
+
+import io.netty.channel.ChannelOption;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.ReactorNettyClientRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.client.RestClientException;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * The one HTTP stack used to talk to the Centrifugo server API.
+ *
+ * Connections come from a shared keep-alive pool, so steady traffic reuses warm TCP/TLS
+ * connections instead of handshaking per call. Connect and read timeouts bound every call,
+ * transient failures (I/O errors, 5xx) are retried with full-jitter exponential backoff, and
+ * a circuit breaker fails fast while Centrifugo is down so callers never hang on it.
+ */
+@Component
+public class RealtimeTransport {
+    private static final Logger log = LoggerFactory.getLogger(RealtimeTransport.class);
+
+    private final ConnectionProvider pool;
+    private final RestClient http;
+    private final CircuitBreaker breaker;
+    private final int maxAttempts;
+    private final long backoffBaseMs;
+    private final long backoffMaxMs;
+
+    public RealtimeTransport(
+            @Value("${app.centrifugo.api-base}") String apiBase,
+            @Value("${app.centrifugo.api-key}") String apiKey,
+            @Value("${app.centrifugo.http.connect-timeout-ms:2000}") int connectTimeoutMs,
+            @Value("${app.centrifugo.http.read-timeout-ms:3000}") long readTimeoutMs,
+            @Value("${app.centrifugo.http.max-connections:16}") int maxConnections,
+            @Value("${app.centrifugo.http.max-idle-ms:30000}") long maxIdleMs,
+            @Value("${app.centrifugo.http.max-attempts:3}") int maxAttempts,
+            @Value("${app.centrifugo.http.backoff-base-ms:100}") long backoffBaseMs,
+            @Value("${app.centrifugo.http.backoff-max-ms:2000}") long backoffMaxMs,
+            @Value("${app.centrifugo.http.breaker-failure-threshold:5}") int breakerFailureThreshold,
+            @Value("${app.centrifugo.http.breaker-open-ms:10000}") long breakerOpenMs
+    ) {
+        String baseUrl = apiBase.endsWith("/") ? apiBase.substring(0, apiBase.length() - 1) : apiBase;
+
+        this.pool = ConnectionProvider.builder("centrifugo")
+                .maxConnections(maxConnections)
+                .maxIdleTime(Duration.ofMillis(maxIdleMs))
+                .pendingAcquireTimeout(Duration.ofMillis(connectTimeoutMs))
+                .evictInBackground(Duration.ofMillis(maxIdleMs))
+                .build();
+        HttpClient client = HttpClient.create(pool)
+                .keepAlive(true)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, connectTimeoutMs);
+
+        ReactorNettyClientRequestFactory factory = new ReactorNettyClientRequestFactory(client);
+        factory.setReadTimeout(Duration.ofMillis(readTimeoutMs));
+        factory.setExchangeTimeout(Duration.ofMillis(connectTimeoutMs + readTimeoutMs));
+
+        this.http = RestClient.builder()
+                .baseUrl(baseUrl)
+                .requestFactory(factory)
+                .defaultHeader("Authorization", "apikey " + apiKey)
+                .build();
+        this.breaker = new CircuitBreaker(breakerFailureThreshold, breakerOpenMs);
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.backoffBaseMs = Math.max(1, backoffBaseMs);
+        this.backoffMaxMs = Math.max(this.backoffBaseMs, backoffMaxMs);
+    }
+
+    @PreDestroy
+    public void close() {
+        pool.dispose();
+    }
+
+    public CircuitBreaker.State breakerState() {
+        return breaker.state();
+    }
+
+    /**
+     * POST a JSON body to a Centrifugo API method (e.g. "/batch") and decode the response.
+     * 4xx responses are thrown as-is without retry; anything else that keeps failing ends in
+     * {@link RealtimeUnavailableException}.
+     */
+    public <T> T post(String path, Object body, Class<T> responseType) {
+        if (!breaker.tryAcquire()) {
+            throw new RealtimeUnavailableException("Centrifugo circuit open, skipping " + path);
+        }
+        RestClientException last = null;
+        for (int attempt = 1; attempt <= maxAttempts; attempt++) {
+            try {
+                T response = http.post()
+                        .uri(path)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .body(body)
+                        .retrieve()
+                        .body(responseType);
+                breaker.onSuccess();
+                return response;
+            } catch (HttpClientErrorException e) {
+                // Centrifugo answered; the request itself is wrong, so retrying will not help
+                breaker.onSuccess();
+                throw e;
+            } catch (RestClientException e) {
+                last = e;
+                if (attempt < maxAttempts && !sleep(backoffMillis(attempt))) break;
+            }
+        }
+        breaker.onFailure();
+        log.warn("Centrifugo {} failed after retries breaker={} err={}", path, breaker.state(),
+                last != null ? last.toString() : "interrupted");
+        throw new RealtimeUnavailableException("Centrifugo " + path + " failed", last);
+    }
+
+    /* ---------------- Helpers ---------------- */
+
+    private long backoffMillis(int attempt) {
+        long cap = Math.min(backoffMaxMs, backoffBaseMs << Math.min(attempt - 1, 20));
+        return ThreadLocalRandom.current().nextLong(cap + 1);
+    }
+
+    private static boolean sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
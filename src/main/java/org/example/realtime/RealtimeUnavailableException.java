@@ -0,0 +1,12 @@
+package org.example.realtime;
+
+/** Thrown when Centrifugo cannot be reached, either after retries or because the breaker is open. */
+public class RealtimeUnavailableException extends RuntimeException {
+    public RealtimeUnavailableException(String message) {
+        super(message);
+    }
+
+    public RealtimeUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,278 @@
+package org.example.realtime;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * In-process pub/sub that pushes realtime events to text/event-stream subscribers, used instead
+ * of Centrifugo when {@code app.realtime.transport=sse}.
+ *
+ * Channels and payloads are the Centrifugo ones; each SSE message is
+ * {@code {"channel":"<channel>","data":<event>}}. Publishing never blocks: the frame is encoded
+ * once and offered to each subscriber's bounded ring buffer, and a small writer pool drains the
+ * buffers to the sockets. A subscriber whose buffer is full is evicted (its stream is closed and
+ * the client reconnects) so one slow consumer cannot hold memory or delay the others.
+ *
+ * A stream's channels are not fixed at connect: they are re-read from the subscriber's
+ * entitlements when {@link #refresh} is called for its user (grants dropped on a mission change)
+ * and every recheck-ms, so a stream stops receiving a mission it lost and picks up new ones.
+ *
+ * Subscribers and publications meet only inside this JVM: an event published on one instance
+ * never reaches a stream held by another. SSE mode therefore needs exactly one application
+ * instance; scaled-out deployments use Centrifugo.
+ */
+@Component
+public class SseBroker {
+    private static final Logger log = LoggerFactory.getLogger(SseBroker.class);
+    private static final String HEARTBEAT = ""; // never a real frame, those are JSON objects
+
+    public record Stats(int subscribers, long published, long evicted) {}
+
+    private final RealtimeEventEncoder encoder;
+    private final int bufferSize;
+    private final long timeoutMs;
+    private final ExecutorService writers;
+    private final ConcurrentHashMap<String, Set<Subscriber>> byChannel = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<UUID, Set<Subscriber>> byUser = new ConcurrentHashMap<>();
+    private final Set<Subscriber> all = ConcurrentHashMap.newKeySet();
+    private final Object index = new Object(); // guards subscriber <-> byChannel/byUser changes
+    private final AtomicLong published = new AtomicLong();
+    private final AtomicLong evicted = new AtomicLong();
+
+    public SseBroker(
+            RealtimeEventEncoder encoder,
+            @Value("${app.realtime.sse.buffer-size:256}") int bufferSize,
+            @Value("${app.realtime.sse.timeout-ms:1800000}") long timeoutMs,
+            @Value("${app.realtime.sse.writer-threads:4}") int writerThreads
+    ) {
+        this.encoder = encoder;
+        this.bufferSize = Math.max(1, bufferSize);
+        this.timeoutMs = timeoutMs;
+        AtomicInteger n = new AtomicInteger();
+        this.writers = Executors.newFixedThreadPool(Math.max(1, writerThreads), r -> {
+            Thread t = new Thread(r, "sse-writer-" + n.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /* ======================= Subscribe ======================= */
+
+    /**
+     * Open a stream for the user, receiving every publication on the channels {@code entitled}
+     * returns; it is called now and again on each refresh, and must only return authorized channels.
+     */
+    public SseEmitter subscribe(UUID userId, Supplier<Set<String>> entitled) {
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        Subscriber s = new Subscriber(emitter, userId, entitled, bufferSize);
+        Set<String> channels = Set.copyOf(entitled.get());
+        emitter.onCompletion(() -> remove(s));
+        emitter.onTimeout(() -> remove(s));
+        emitter.onError(e -> remove(s));
+        synchronized (index) {
+            all.add(s);
+            byUser.computeIfAbsent(userId, u -> ConcurrentHashMap.newKeySet()).add(s);
+            reindex(s, channels);
+        }
+        return emitter;
+    }
+
+    /** Re-read the channels of the user's open streams, off the caller's thread. */
+    public void refresh(UUID userId) {
+        Set<Subscriber> streams = byUser.get(userId);
+        if (streams == null || streams.isEmpty()) return;
+        try {
+            writers.execute(() -> {
+                for (Subscriber s : streams) rechannel(s);
+            });
+        } catch (RejectedExecutionException e) {
+            log.debug("SSE refresh skipped (shutting down) userId={}", userId);
+        }
+    }
+
+    /** Bounds how long a stream keeps channels whose grant changed elsewhere (another instance, ttl). */
+    @Scheduled(fixedDelayString = "${app.realtime.sse.recheck-ms:30000}")
+    public void recheck() {
+        for (Subscriber s : all) rechannel(s);
+    }
+
+    /* ======================= Publish ======================= */
+
+    public void publish(String channel, byte[] data) {
+        Set<Subscriber> subscribers = byChannel.get(channel);
+        published.incrementAndGet();
+        if (subscribers == null || subscribers.isEmpty()) return;
+        String frame = new String(encoder.encodePublication(channel, data), StandardCharsets.UTF_8);
+        for (Subscriber s : subscribers) offer(s, frame);
+    }
+
+    public void publishBatch(List<CentrifugoPublishQueue.PublishCommand> commands) {
+        for (CentrifugoPublishQueue.PublishCommand c : commands) publish(c.channel(), c.data());
+    }
+
+    /** Keeps idle streams alive through proxies and detects dead connections. */
+    @Scheduled(fixedDelayString = "${app.realtime.sse.heartbeat-ms:15000}")
+    public void heartbeat() {
+        for (Subscriber s : all) offer(s, HEARTBEAT);
+    }
+
+    public Stats stats() {
+        return new Stats(all.size(), published.get(), evicted.get());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        for (Subscriber s : all) s.emitter.complete();
+        writers.shutdownNow();
+    }
+
+    /* ======================= Internals ======================= */
+
+    private void offer(Subscriber s, String frame) {
+        Subscriber.Offer result = s.offer(frame);
+        if (result == Subscriber.Offer.FULL) {
+            evicted.incrementAndGet();
+            log.debug("SSE subscriber evicted (buffer full) channels={}", s.channels);
+            remove(s);
+            s.emitter.complete();
+        } else if (result == Subscriber.Offer.SCHEDULE) {
+            try {
+                writers.execute(() -> drain(s));
+            } catch (RejectedExecutionException e) {
+                remove(s);
+            }
+        }
+    }
+
+    private void drain(Subscriber s) {
+        while (true) {
+            String frame = s.poll();
+            if (frame == null) return;
+            try {
+                if (frame.isEmpty()) {
+                    s.emitter.send(SseEmitter.event().comment("ping"));
+                } else {
+                    s.emitter.send(frame);
+                }
+            } catch (IOException | IllegalStateException e) {
+                remove(s);
+                s.emitter.completeWithError(e);
+                return;
+            }
+        }
+    }
+
+    private void remove(Subscriber s) {
+        synchronized (index) {
+            if (!all.remove(s)) return;
+            s.close();
+            reindex(s, Set.of());
+            byUser.computeIfPresent(s.userId, (u, set) -> {
+                set.remove(s);
+                return set.isEmpty() ? null : set;
+            });
+        }
+    }
+
+    private void rechannel(Subscriber s) {
+        Set<String> channels;
+        try {
+            channels = Set.copyOf(s.entitled.get()); // may hit the database: outside the index lock
+        } catch (RuntimeException e) {
+            log.warn("SSE channel refresh failed userId={} err={}", s.userId, e.toString());
+            return;
+        }
+        synchronized (index) {
+            if (!all.contains(s) || channels.equals(s.channels)) return;
+            log.debug("SSE channels changed userId={} channels={}", s.userId, channels);
+            reindex(s, channels);
+        }
+    }
+
+    // moves the subscriber from its current channels to the given ones; caller holds the index lock
+    private void reindex(Subscriber s, Set<String> channels) {
+        for (String channel : s.channels) {
+            if (channels.contains(channel)) continue;
+            byChannel.computeIfPresent(channel, (c, set) -> {
+                set.remove(s);
+                return set.isEmpty() ? null : set;
+            });
+        }
+        for (String channel : channels) {
+            if (!s.channels.contains(channel)) {
+                byChannel.computeIfAbsent(channel, c -> ConcurrentHashMap.newKeySet()).add(s);
+            }
+        }
+        s.channels = channels;
+    }
+
+    /** One stream: a fixed ring of pending frames and a flag saying a drain task is queued. */
+    private static final class Subscriber {
+        enum Offer { QUEUED, SCHEDULE, FULL }
+
+        final SseEmitter emitter;
+        final UUID userId;
+        final Supplier<Set<String>> entitled;
+        volatile Set<String> channels = Set.of();
+        private final String[] ring;
+        private int head;
+        private int size;
+        private boolean draining;
+        private boolean closed;
+
+        Subscriber(SseEmitter emitter, UUID userId, Supplier<Set<String>> entitled, int capacity) {
+            this.emitter = emitter;
+            this.userId = userId;
+            this.entitled = entitled;
+            this.ring = new String[capacity];
+        }
+
+        synchronized Offer offer(String frame) {
+            if (closed) return Offer.QUEUED;
+            if (size == ring.length) return Offer.FULL;
+            ring[(head + size) % ring.length] = frame;
+            size++;
+            if (draining) return Offer.QUEUED;
+            draining = true;
+            return Offer.SCHEDULE;
+        }
+
+        /** Next frame, or null (and the drain task ends) when the ring is empty. */
+        synchronized String poll() {
+            if (size == 0 || closed) {
+                draining = false;
+                return null;
+            }
+            String frame = ring[head];
+            ring[head] = null;
+            head = (head + 1) % ring.length;
+            size--;
+            return frame;
+        }
+
+        synchronized void close() {
+            closed = true;
+            size = 0;
+            Arrays.fill(ring, null);
+        }
+    }
+}
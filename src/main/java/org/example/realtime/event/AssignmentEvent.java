@@ -0,0 +1,28 @@
+package org.example.realtime.event;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+
+import java.util.UUID;
+
+/** type=assignment, with an optional mission summary so clients can render without a REST fetch. */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@JsonPropertyOrder({"type", "missionId", "driverId", "driverName", "status", "reference", "pickup", "dropoff", "at"})
+public record AssignmentEvent(
+    UUID missionId,
+    UUID driverId,
+    String driverName,
+    String status,
+    String reference,
+    AddressSummary pickup,
+    AddressSummary dropoff,
+    @JsonFormat(shape = JsonFormat.Shape.STRING) long at
+) {
+    @JsonProperty("type")
+    public String type() { return "assignment"; }
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public record AddressSummary(String line1, String city) {}
+}
@@ -0,0 +1,24 @@
+package org.example.realtime.event;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+
+import java.util.UUID;
+
+/** type=location on missions:&lt;missionId&gt;. eta is the estimated delivery time in epoch ms, when known. */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@JsonPropertyOrder({"type", "missionId", "driverId", "lat", "lng", "accuracy", "eta", "at"})
+public record LocationEvent(
+    UUID missionId,
+    UUID driverId,
+    double lat,
+    double lng,
+    float accuracy,
+    @JsonFormat(shape = JsonFormat.Shape.STRING) Long eta,
+    @JsonFormat(shape = JsonFormat.Shape.STRING) long at
+) {
+    @JsonProperty("type")
+    public String type() { return "location"; }
+}
@@ -0,0 +1,33 @@
+package org.example.realtime.event;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * type=status-diff on status:&lt;ownerId&gt;: the latest status of every mission of that owner
+ * that changed since the previous frame.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@JsonPropertyOrder({"type", "ownerId", "changes", "at"})
+public record StatusDiffEvent(
+    UUID ownerId,
+    List<Change> changes,
+    @JsonFormat(shape = JsonFormat.Shape.STRING) long at
+) {
+    @JsonProperty("type")
+    public String type() { return "status-diff"; }
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    @JsonPropertyOrder({"missionId", "driverId", "status", "at"})
+    public record Change(
+        UUID missionId,
+        UUID driverId,
+        String status,
+        @JsonFormat(shape = JsonFormat.Shape.STRING) long at
+    ) {}
+}
@@ -0,0 +1,32 @@
+package org.example.realtime.event;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+
+import java.util.UUID;
+
+/**
+ * type=status on mission channels, with the lifecycle timestamps. Owners follow their missions'
+ * statuses on status:&lt;ownerId&gt; through {@link StatusDiffEvent} frames instead. Timestamps,
+ * including the estimated delivery time (eta), are epoch ms strings.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@JsonPropertyOrder({"type", "missionId", "driverId", "status",
+        "assignedAt", "pickedUpAt", "inTransitAt", "deliveredAt", "eta", "reason", "at"})
+public record StatusEvent(
+    UUID missionId,
+    UUID driverId,
+    String status,
+    String assignedAt,
+    String pickedUpAt,
+    String inTransitAt,
+    String deliveredAt,
+    String eta,
+    String reason,
+    @JsonFormat(shape = JsonFormat.Shape.STRING) long at
+) {
+    @JsonProperty("type")
+    public String type() { return "status"; }
+}
@@ -1,5 +1,6 @@
 package org.example.shared.config;
 
+import org.example.shared.datasource.ReadRouting;
 import org.example.shared.entity.User;
 import org.example.shared.repository.UserRepository;
 import org.example.shared.security.JwtService;
@@ -23,7 +24,8 @@ public class JwtConfig {
             @Override
             protected Optional<User> loadUserById(String id) {
                 try { 
-                    return userRepository.findById(UUID.fromString(id)); 
+                    UUID userId = UUID.fromString(id);
+                    return ReadRouting.onPrimary(() -> userRepository.findById(userId));
                 } catch (IllegalArgumentException e) { 
                     return Optional.empty(); 
                 }
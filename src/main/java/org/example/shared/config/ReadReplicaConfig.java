@@ -0,0 +1,90 @@
+package org.example.shared.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.example.shared.datasource.RecentWriteFilter;
+import org.example.shared.datasource.ReplicaLagGuard;
+import org.example.shared.datasource.ReplicaRoutingDataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.util.StringUtils;
+
+import javax.sql.DataSource;
+
+/**
+ * Sends read-only transactions to a MySQL replica, when app.datasource.replica.url is set;
+ * without it the auto-configured single pool is used as before.
+ *
+ * The application DataSource is a lazy proxy: a transaction's connection is only taken when its
+ * first statement runs, by which time the transaction is known to be read-only or not.
+ * Read-write transactions and reads outside a transaction use the primary; read-only ones
+ * ({@code @Transactional(readOnly = true)}, and Spring Data's own find methods) use the replica
+ * unless {@link ReplicaLagGuard} sends them back to the primary.
+ */
+@Configuration
+@ConditionalOnExpression("!'${app.datasource.replica.url:}'.isBlank()")
+public class ReadReplicaConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource ds = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        ds.setPoolName("primary");
+        return ds;
+    }
+
+    @Bean
+    public HikariDataSource replicaDataSource(
+            DataSourceProperties primary,
+            @Value("${app.datasource.replica.url}") String url,
+            @Value("${app.datasource.replica.username:}") String username,
+            @Value("${app.datasource.replica.password:}") String password,
+            @Value("${app.datasource.replica.maximum-pool-size:5}") int maximumPoolSize,
+            @Value("${app.datasource.replica.connection-timeout-ms:2000}") long connectionTimeoutMs
+    ) {
+        HikariDataSource ds = new HikariDataSource();
+        ds.setPoolName("replica");
+        ds.setJdbcUrl(url);
+        ds.setDriverClassName(primary.determineDriverClassName());
+        ds.setUsername(StringUtils.hasText(username) ? username : primary.determineUsername());
+        ds.setPassword(StringUtils.hasText(password) ? password : primary.determinePassword());
+        ds.setMaximumPoolSize(maximumPoolSize);
+        ds.setMinimumIdle(Math.min(2, maximumPoolSize));
+        ds.setConnectionTimeout(connectionTimeoutMs); // a lost replica should fail fast, not stall requests
+        ds.setReadOnly(true);
+        return ds;
+    }
+
+    @Bean
+    public ReplicaLagGuard replicaLagGuard(
+            @Qualifier("replicaDataSource") DataSource replica,
+            @Value("${app.datasource.replica.sticky-ms:2000}") long stickyMs,
+            @Value("${app.datasource.replica.max-lag-ms:5000}") long maxLagMs,
+            @Value("${app.datasource.replica.lag-probe:true}") boolean probe
+    ) {
+        return new ReplicaLagGuard(replica, stickyMs, maxLagMs, probe);
+    }
+
+    @Bean
+    public RecentWriteFilter recentWriteFilter(ReplicaLagGuard guard) {
+        return new RecentWriteFilter(guard);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(
+            @Qualifier("primaryDataSource") DataSource primary,
+            @Qualifier("replicaDataSource") DataSource replica,
+            ReplicaLagGuard guard
+    ) {
+        LazyConnectionDataSourceProxy proxy = new LazyConnectionDataSourceProxy(primary);
+        proxy.setReadOnlyDataSource(new ReplicaRoutingDataSource(primary, replica, guard));
+        return proxy;
+    }
+}
@@ -0,0 +1,79 @@
+package org.example.shared.datasource;
+
+import org.example.shared.security.UserPrincipal;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * Per-thread hints for where read-only transactions run; no-ops when no replica is configured.
+ *
+ * Read-only transactions go to the replica unless the reads run inside {@link #onPrimary}, or the
+ * user they run for has written recently (see {@link ReplicaLagGuard}). That user is the
+ * authenticated one, or the one named by {@link #asUser} before authentication is in place, or
+ * the client whose request carries a recent write's window (see {@link RecentWriteFilter}).
+ */
+public final class ReadRouting {
+
+    private static final ThreadLocal<Boolean> PRIMARY = new ThreadLocal<>();
+    private static final ThreadLocal<UUID> READER = new ThreadLocal<>();
+    private static final ThreadLocal<Long> PRIMARY_UNTIL = new ThreadLocal<>();
+
+    private ReadRouting() {}
+
+    /** Run reads that must see the latest commit (e.g. loads into a shared cache) on the primary. */
+    public static <T> T onPrimary(Supplier<T> reads) {
+        Boolean previous = PRIMARY.get();
+        PRIMARY.set(Boolean.TRUE);
+        try {
+            return reads.get();
+        } finally {
+            if (previous == null) PRIMARY.remove();
+            else PRIMARY.set(previous);
+        }
+    }
+
+    /** Run reads on behalf of a user who is not (yet) in the security context. */
+    public static <T> T asUser(UUID userId, Supplier<T> reads) {
+        UUID previous = READER.get();
+        READER.set(userId);
+        try {
+            return reads.get();
+        } finally {
+            if (previous == null) READER.remove();
+            else READER.set(previous);
+        }
+    }
+
+    static boolean primaryForced() {
+        return PRIMARY.get() != null;
+    }
+
+    // set by RecentWriteFilter for the duration of a request; 0 when the request carries no window
+    static void primaryUntil(long until) {
+        if (until > 0) PRIMARY_UNTIL.set(until);
+        else PRIMARY_UNTIL.remove();
+    }
+
+    static long primaryUntil() {
+        Long until = PRIMARY_UNTIL.get();
+        return until != null ? until : 0;
+    }
+
+    /** The user the current reads are for, or null for anonymous and background work. */
+    static UUID reader() {
+        UUID named = READER.get();
+        if (named != null) return named;
+        return currentUserId();
+    }
+
+    static UUID currentUserId() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        if (auth != null && auth.getPrincipal() instanceof UserPrincipal principal) {
+            return principal.getUser().getId();
+        }
+        return null;
+    }
+}
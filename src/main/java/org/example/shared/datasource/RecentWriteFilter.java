@@ -0,0 +1,89 @@
+package org.example.shared.datasource;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseCookie;
+import org.springframework.lang.NonNull;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Reports every authenticated non-GET request to {@link ReplicaLagGuard} as a write by its user,
+ * so that user's next reads go to the primary. Runs after the security filters, where the
+ * user is known. The window is opened before the request runs and again once it completes.
+ *
+ * The window's end is also sent back in the {@value #COOKIE} cookie; a later request carrying it
+ * reads from the primary on any instance until then, not only on the one that took the write.
+ * The cookie is set before the request runs (the response may be committed by the time it
+ * completes), so it counts from the request's start.
+ */
+public class RecentWriteFilter extends OncePerRequestFilter {
+
+    static final String COOKIE = "primary-until";
+    private static final Set<String> SAFE_METHODS = Set.of("GET", "HEAD", "OPTIONS");
+
+    private final ReplicaLagGuard guard;
+
+    public RecentWriteFilter(ReplicaLagGuard guard) {
+        this.guard = guard;
+    }
+
+    @Override
+    protected void doFilterInternal(
+        @NonNull HttpServletRequest request,
+        @NonNull HttpServletResponse response,
+        @NonNull FilterChain filterChain
+    ) throws ServletException, IOException {
+        UUID writer = SAFE_METHODS.contains(request.getMethod()) ? null : ReadRouting.currentUserId();
+        ReadRouting.primaryUntil(carriedWindow(request));
+        try {
+            if (writer == null) {
+                filterChain.doFilter(request, response);
+                return;
+            }
+            // before: a read racing the response must not slip through; after: the window counts from commit
+            long until = guard.onWrite(writer);
+            response.addHeader(HttpHeaders.SET_COOKIE, ResponseCookie.from(COOKIE, Long.toString(until))
+                    .path("/")
+                    .httpOnly(true)
+                    .sameSite("Lax")
+                    .maxAge(Duration.ofMillis(guard.maxWindowMs()).plusSeconds(1))
+                    .build()
+                    .toString());
+            try {
+                filterChain.doFilter(request, response);
+            } finally {
+                guard.onWrite(writer);
+            }
+        } finally {
+            ReadRouting.primaryUntil(0);
+        }
+    }
+
+    /* ======================= Helpers ======================= */
+
+    // the end of a window set by an earlier write, or 0; values further out than any real window are ignored
+    private long carriedWindow(HttpServletRequest request) {
+        Cookie[] cookies = request.getCookies();
+        if (cookies == null) return 0;
+        for (Cookie cookie : cookies) {
+            if (!COOKIE.equals(cookie.getName())) continue;
+            try {
+                long until = Long.parseLong(cookie.getValue());
+                long now = System.currentTimeMillis();
+                return until >= now && until <= now + guard.maxWindowMs() ? until : 0;
+            } catch (NumberFormatException e) {
+                return 0;
+            }
+        }
+        return 0;
+    }
+}
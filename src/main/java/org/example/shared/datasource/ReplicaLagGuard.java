@@ -0,0 +1,118 @@
+package org.example.shared.datasource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Decides whether a read-only transaction may use the replica.
+ *
+ * The replica's lag is measured every few seconds from SHOW REPLICA STATUS; while it is unknown
+ * (not measured yet, replication stopped, probe failing) or above max-lag-ms, all reads stay on
+ * the primary. Users who just wrote read from the primary for sticky-ms plus the current lag, so
+ * they see their own changes. The recent writers kept here only cover requests served by this
+ * instance; behind a load balancer without sticky sessions the window travels with the client in
+ * a cookie set by {@link RecentWriteFilter}, so whichever instance serves the next read honours
+ * it. Clients that drop cookies need sticky sessions to read their own writes. A replica that reports no replication channel (e.g. a managed read
+ * endpoint) counts as in sync; set lag-probe to false to skip the probe altogether.
+ */
+public class ReplicaLagGuard {
+    private static final Logger log = LoggerFactory.getLogger(ReplicaLagGuard.class);
+
+    private final DataSource replica;
+    private final long stickyMs;
+    private final long maxLagMs;
+    private final boolean probe;
+    private final ConcurrentHashMap<UUID, Long> recentWriters = new ConcurrentHashMap<>(); // userId -> primary until
+    private volatile long lagMs = -1; // -1: unknown
+
+    public ReplicaLagGuard(DataSource replica, long stickyMs, long maxLagMs, boolean probe) {
+        this.replica = replica;
+        this.stickyMs = stickyMs;
+        this.maxLagMs = maxLagMs;
+        this.probe = probe;
+    }
+
+    /** True if the current read-only transaction may run on the replica. */
+    public boolean useReplica() {
+        if (ReadRouting.primaryForced()) return false;
+        if (!usable(lagMs)) return false;
+        if (ReadRouting.primaryUntil() >= System.currentTimeMillis()) return false;
+        UUID reader = ReadRouting.reader();
+        if (reader == null) return true;
+        Long until = recentWriters.get(reader);
+        return until == null || until < System.currentTimeMillis();
+    }
+
+    /** The user has just written: keep their reads on the primary until the replica caught up; returns that time. */
+    public long onWrite(UUID userId) {
+        long until = System.currentTimeMillis() + stickyMs + Math.max(lagMs, 0);
+        if (userId != null) recentWriters.put(userId, until);
+        return until;
+    }
+
+    /** Longest window a write can open; a client-supplied window beyond it is not trusted. */
+    public long maxWindowMs() {
+        return stickyMs + maxLagMs;
+    }
+
+    @Scheduled(fixedDelayString = "${app.datasource.replica.lag-check-ms:2000}")
+    public void checkLag() {
+        long now = System.currentTimeMillis();
+        recentWriters.values().removeIf(until -> until < now);
+
+        long measured = probe ? measureLag() : 0;
+        boolean wasUsable = usable(lagMs);
+        lagMs = measured;
+        if (usable(measured) && !wasUsable) {
+            log.info("Replica reads enabled lagMs={}", measured);
+        } else if (!usable(measured) && wasUsable) {
+            log.warn("Replica reads suspended lagMs={} maxLagMs={}", measured, maxLagMs);
+        }
+    }
+
+    /* ======================= Helpers ======================= */
+
+    private boolean usable(long lag) {
+        return lag >= 0 && lag <= maxLagMs;
+    }
+
+    // lag in ms, 0 without a replication channel, -1 when unknown
+    private long measureLag() {
+        try (Connection con = replica.getConnection(); Statement st = con.createStatement()) {
+            try (ResultSet rs = status(st)) {
+                if (!rs.next()) return 0;
+                ResultSetMetaData meta = rs.getMetaData();
+                for (int i = 1; i <= meta.getColumnCount(); i++) {
+                    // Seconds_Behind_Source, Seconds_Behind_Master before MySQL 8.0.22
+                    if (meta.getColumnLabel(i).toLowerCase(Locale.ROOT).startsWith("seconds_behind_")) {
+                        long seconds = rs.getLong(i);
+                        return rs.wasNull() ? -1 : seconds * 1000;
+                    }
+                }
+                return -1;
+            }
+        } catch (SQLException e) {
+            if (usable(lagMs)) log.warn("Replica lag probe failed err={}", e.toString());
+            return -1;
+        }
+    }
+
+    private static ResultSet status(Statement st) throws SQLException {
+        try {
+            return st.executeQuery("SHOW REPLICA STATUS");
+        } catch (SQLException e) {
+            return st.executeQuery("SHOW SLAVE STATUS");
+        }
+    }
+}
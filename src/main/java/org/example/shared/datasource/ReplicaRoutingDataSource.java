@@ -0,0 +1,30 @@
+package org.example.shared.datasource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * Target of read-only connections: the replica, or the primary when {@link ReplicaLagGuard} says
+ * the replica cannot serve the current reads. Resolved when the connection is actually needed,
+ * i.e. on the transaction's first statement.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    private enum Target { PRIMARY, REPLICA }
+
+    private final ReplicaLagGuard guard;
+
+    public ReplicaRoutingDataSource(DataSource primary, DataSource replica, ReplicaLagGuard guard) {
+        this.guard = guard;
+        setTargetDataSources(Map.of(Target.PRIMARY, primary, Target.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return guard.useReplica() ? Target.REPLICA : Target.PRIMARY;
+    }
+}
@@ -1,6 +1,8 @@
 package org.example.shared.entity;
 
 import jakarta.persistence.*;
+import org.example.shared.id.TimeOrderedId;
+
 import java.math.BigDecimal;
 import java.time.Instant;
 import java.util.UUID;
@@ -29,7 +31,7 @@ public class Mission {
     public void setDeliveredAt(Instant deliveredAt) { this.deliveredAt = deliveredAt; }
     
     @Id
-    @GeneratedValue
+    @TimeOrderedId
     private UUID id;
 
     @Column(nullable = false, unique = true)
@@ -79,6 +81,11 @@ public class Mission {
     @JoinColumn(name = "owner_id")
     private User owner;
 
+    // bumped by every write, including the conditional UPDATEs of driver transitions
+    @Version
+    @Column(nullable = false)
+    private long version;
+
     public UUID getId() { return id; }
     public void setId(UUID id) { this.id = id; }
     public String getReference() { return reference; }
@@ -103,4 +110,5 @@ public class Mission {
     public void setParcelNotes(String parcelNotes) { this.parcelNotes = parcelNotes; }
     public User getOwner() { return owner; }
     public void setOwner(User owner) { this.owner = owner; }
+    public long getVersion() { return version; }
 }
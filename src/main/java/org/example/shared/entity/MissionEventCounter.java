@@ -0,0 +1,23 @@
+package org.example.shared.entity;
+
+import jakarta.persistence.*;
+
+import java.util.UUID;
+
+/**
+ * Last sequence number handed out on a mission's missions:&lt;id&gt; channel. Advanced in place by
+ * MissionEventCounterRepository#advance, never through the entity.
+ */
+@Entity
+@Table(name = "mission_event_counters")
+public class MissionEventCounter {
+    @Id
+    @Column(name = "mission_id")
+    private UUID missionId;
+
+    @Column(name = "last_seq", nullable = false)
+    private long lastSeq;
+
+    public UUID getMissionId() { return missionId; }
+    public long getLastSeq() { return lastSeq; }
+}
@@ -0,0 +1,73 @@
+package org.example.shared.entity;
+
+import jakarta.persistence.*;
+import org.springframework.data.domain.Persistable;
+
+import java.io.Serializable;
+import java.time.Instant;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * A published missions:&lt;id&gt; event with its per-mission sequence number, kept so clients can
+ * recover what they missed while disconnected. Rows are only ever inserted.
+ */
+@Entity
+@Table(name = "mission_events")
+@IdClass(MissionEventRecord.Key.class)
+public class MissionEventRecord implements Persistable<MissionEventRecord.Key> {
+
+    public static class Key implements Serializable {
+        private UUID missionId;
+        private long seq;
+
+        public Key() {}
+
+        public Key(UUID missionId, long seq) {
+            this.missionId = missionId;
+            this.seq = seq;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key k && seq == k.seq && Objects.equals(missionId, k.missionId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(missionId, seq);
+        }
+    }
+
+    @Id
+    @Column(name = "mission_id")
+    private UUID missionId;
+
+    @Id
+    private long seq;
+
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String payload;
+
+    @Column(nullable = false, updatable = false)
+    private Instant createdAt = Instant.now();
+
+    public MissionEventRecord() {}
+
+    public MissionEventRecord(UUID missionId, long seq, String payload) {
+        this.missionId = missionId;
+        this.seq = seq;
+        this.payload = payload;
+    }
+
+    // ids are assigned by MissionEventLog, so tell Spring Data to insert without a lookup
+    @Override
+    public Key getId() { return new Key(missionId, seq); }
+    @Override
+    public boolean isNew() { return true; }
+
+    public UUID getMissionId() { return missionId; }
+    public long getSeq() { return seq; }
+    public String getPayload() { return payload; }
+    public Instant getCreatedAt() { return createdAt; }
+}
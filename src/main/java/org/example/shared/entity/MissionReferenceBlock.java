@@ -0,0 +1,21 @@
+package org.example.shared.entity;
+
+import jakarta.persistence.*;
+
+/**
+ * Reference counter of one day: the first number not yet leased to any instance. Instances lease
+ * blocks of numbers by advancing it (see MissionReferenceBlockRepository#lease).
+ */
+@Entity
+@Table(name = "mission_reference_blocks")
+public class MissionReferenceBlock {
+    @Id
+    @Column(length = 8)
+    private String day; // yyyyMMdd, UTC
+
+    @Column(name = "next_value", nullable = false)
+    private long nextValue;
+
+    public String getDay() { return day; }
+    public long getNextValue() { return nextValue; }
+}
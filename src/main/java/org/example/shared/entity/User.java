@@ -1,6 +1,8 @@
 package org.example.shared.entity;
 
 import jakarta.persistence.*;
+import org.example.shared.id.TimeOrderedId;
+
 import java.time.Instant;
 import java.util.UUID;
 
@@ -8,7 +10,7 @@ import java.util.UUID;
 @Table(name = "users")
 public class User {
     @Id
-    @GeneratedValue
+    @TimeOrderedId
     private UUID id;
 
     @Column(nullable = false)
@@ -0,0 +1,261 @@
+package org.example.shared.geo;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
+
+/**
+ * Latest known position of every driver, bucketed in a uniform lat/lng grid.
+ *
+ * Positions live in parallel primitive arrays indexed by slot; each grid cell holds the slots
+ * inside it. A nearest query scans rings of cells outward from the query point and stops once
+ * no unvisited ring can beat the k-th best distance, so cost depends on local density rather
+ * than on the number of drivers. Entries older than the TTL are ignored and swept periodically.
+ */
+@Component
+public class DriverLocationIndex {
+
+    public record Candidate(UUID driverId, double lat, double lng, double distanceMeters, long seenAt) {}
+
+    private final double cellDeg;
+    private final long ttlMs;
+    private final int maxRings;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // slot storage
+    private double[] lats = new double[256];
+    private double[] lngs = new double[256];
+    private long[] seenAt = new long[256];
+    private long[] cellOf = new long[256];
+    private UUID[] drivers = new UUID[256];
+    private int[] freeSlots = new int[16];
+    private int freeCount = 0;
+    private int highWater = 0;
+
+    private final HashMap<UUID, Integer> slotOf = new HashMap<>();
+    private final HashMap<Long, int[]> cells = new HashMap<>(); // [0] = size, then slots
+
+    public DriverLocationIndex(
+            @Value("${app.drivers.index.cell-deg:0.01}") double cellDeg,
+            @Value("${app.drivers.index.ttl-ms:120000}") long ttlMs,
+            @Value("${app.drivers.index.max-radius-km:30}") double maxRadiusKm
+    ) {
+        this.cellDeg = cellDeg;
+        this.ttlMs = ttlMs;
+        this.maxRings = Math.max(1, (int) Math.ceil(maxRadiusKm * 1000 / (cellDeg * GeoUtils.METERS_PER_DEGREE_LAT)));
+    }
+
+    /* ======================= Write ======================= */
+
+    public void update(UUID driverId, double lat, double lng, long at) {
+        long cell = cellKey(lat, lng);
+        lock.writeLock().lock();
+        try {
+            Integer existing = slotOf.get(driverId);
+            int slot;
+            if (existing != null) {
+                slot = existing;
+                if (at < seenAt[slot]) return; // out-of-order fix
+                if (cellOf[slot] != cell) {
+                    removeFromCell(cellOf[slot], slot);
+                    addToCell(cell, slot);
+                }
+            } else {
+                slot = allocateSlot();
+                drivers[slot] = driverId;
+                slotOf.put(driverId, slot);
+                addToCell(cell, slot);
+            }
+            lats[slot] = lat;
+            lngs[slot] = lng;
+            seenAt[slot] = at;
+            cellOf[slot] = cell;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(UUID driverId) {
+        lock.writeLock().lock();
+        try {
+            Integer slot = slotOf.remove(driverId);
+            if (slot != null) releaseSlot(slot);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.drivers.index.sweep-interval-ms:30000}")
+    public void evictStale() {
+        long cutoff = System.currentTimeMillis() - ttlMs;
+        lock.writeLock().lock();
+        try {
+            for (int slot = 0; slot < highWater; slot++) {
+                if (drivers[slot] != null && seenAt[slot] < cutoff) {
+                    slotOf.remove(drivers[slot]);
+                    releaseSlot(slot);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /* ======================= Query ======================= */
+
+    /** Up to k fresh drivers closest to (lat, lng) that pass the filter, nearest first. */
+    public List<Candidate> nearest(double lat, double lng, int k, Predicate<UUID> filter) {
+        if (k <= 0) return List.of();
+        long cutoff = System.currentTimeMillis() - ttlMs;
+        int cy = (int) Math.floor(lat / cellDeg);
+        int cx = (int) Math.floor(lng / cellDeg);
+        double cellM = cellDeg * GeoUtils.METERS_PER_DEGREE_LAT * Math.max(0.01, Math.cos(Math.toRadians(lat)));
+
+        // bounded max-heap on distance, kept as parallel arrays
+        int[] bestSlot = new int[k];
+        double[] bestDist = new double[k];
+        int found = 0;
+
+        lock.readLock().lock();
+        try {
+            for (int r = 0; r <= maxRings; r++) {
+                for (int dy = -r; dy <= r; dy++) {
+                    for (int dx = -r; dx <= r; dx++) {
+                        if (Math.max(Math.abs(dx), Math.abs(dy)) != r) continue; // ring only
+                        int[] bucket = cells.get(pack(cy + dy, cx + dx));
+                        if (bucket == null) continue;
+                        for (int i = 1; i <= bucket[0]; i++) {
+                            int slot = bucket[i];
+                            if (seenAt[slot] < cutoff || !filter.test(drivers[slot])) continue;
+                            double d = GeoUtils.haversineMeters(lat, lng, lats[slot], lngs[slot]);
+                            if (found < k) {
+                                bestSlot[found] = slot;
+                                bestDist[found] = d;
+                                found++;
+                                siftUp(bestSlot, bestDist, found - 1);
+                            } else if (d < bestDist[0]) {
+                                bestSlot[0] = slot;
+                                bestDist[0] = d;
+                                siftDown(bestSlot, bestDist, found);
+                            }
+                        }
+                    }
+                }
+                // anything in ring r+1 or beyond is at least r cells away
+                if (found == k && bestDist[0] <= r * cellM) break;
+            }
+
+            List<Candidate> out = new ArrayList<>(found);
+            for (int i = 0; i < found; i++) {
+                int slot = bestSlot[i];
+                out.add(new Candidate(drivers[slot], lats[slot], lngs[slot], bestDist[i], seenAt[slot]));
+            }
+            out.sort((a, b) -> Double.compare(a.distanceMeters(), b.distanceMeters()));
+            return out;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return slotOf.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /* ======================= Internals ======================= */
+
+    private long cellKey(double lat, double lng) {
+        return pack((int) Math.floor(lat / cellDeg), (int) Math.floor(lng / cellDeg));
+    }
+
+    private static long pack(int y, int x) {
+        return ((long) y << 32) | (x & 0xffffffffL);
+    }
+
+    private int allocateSlot() {
+        if (freeCount > 0) return freeSlots[--freeCount];
+        if (highWater == drivers.length) {
+            int n = drivers.length * 2;
+            lats = Arrays.copyOf(lats, n);
+            lngs = Arrays.copyOf(lngs, n);
+            seenAt = Arrays.copyOf(seenAt, n);
+            cellOf = Arrays.copyOf(cellOf, n);
+            drivers = Arrays.copyOf(drivers, n);
+        }
+        return highWater++;
+    }
+
+    private void releaseSlot(int slot) {
+        removeFromCell(cellOf[slot], slot);
+        drivers[slot] = null;
+        if (freeCount == freeSlots.length) freeSlots = Arrays.copyOf(freeSlots, freeCount * 2);
+        freeSlots[freeCount++] = slot;
+    }
+
+    private void addToCell(long cell, int slot) {
+        int[] bucket = cells.get(cell);
+        if (bucket == null) {
+            bucket = new int[5];
+        } else if (bucket[0] + 1 == bucket.length) {
+            bucket = Arrays.copyOf(bucket, bucket.length * 2);
+        }
+        bucket[++bucket[0]] = slot;
+        cells.put(cell, bucket);
+    }
+
+    private void removeFromCell(long cell, int slot) {
+        int[] bucket = cells.get(cell);
+        if (bucket == null) return;
+        for (int i = 1; i <= bucket[0]; i++) {
+            if (bucket[i] == slot) {
+                bucket[i] = bucket[bucket[0]--];
+                break;
+            }
+        }
+        if (bucket[0] == 0) cells.remove(cell);
+    }
+
+    private static void siftUp(int[] slots, double[] dist, int i) {
+        while (i > 0) {
+            int parent = (i - 1) / 2;
+            if (dist[parent] >= dist[i]) return;
+            swap(slots, dist, i, parent);
+            i = parent;
+        }
+    }
+
+    private static void siftDown(int[] slots, double[] dist, int n) {
+        int i = 0;
+        while (true) {
+            int l = 2 * i + 1;
+            int r = l + 1;
+            int largest = i;
+            if (l < n && dist[l] > dist[largest]) largest = l;
+            if (r < n && dist[r] > dist[largest]) largest = r;
+            if (largest == i) return;
+            swap(slots, dist, i, largest);
+            i = largest;
+        }
+    }
+
+    private static void swap(int[] slots, double[] dist, int a, int b) {
+        int s = slots[a];
+        slots[a] = slots[b];
+        slots[b] = s;
+        double d = dist[a];
+        dist[a] = dist[b];
+        dist[b] = d;
+    }
+}
@@ -0,0 +1,9 @@
+package org.example.shared.geo;
+
+/**
+ * Travel-time estimate between two points. The default bean is {@link StraightLineEtaModel};
+ * declare another EtaModel bean marked @Primary to plug in a routing service or a learned model.
+ */
+public interface EtaModel {
+    long travelMillis(double fromLat, double fromLng, double toLat, double toLng);
+}
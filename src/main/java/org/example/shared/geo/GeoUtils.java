@@ -0,0 +1,19 @@
+package org.example.shared.geo;
+
+/** Small spherical-earth helpers; accurate to well under 1% at city scale. */
+public final class GeoUtils {
+    public static final double EARTH_RADIUS_M = 6_371_008.8;
+    public static final double METERS_PER_DEGREE_LAT = 111_320d;
+
+    private GeoUtils() {}
+
+    /** Great-circle distance in meters. */
+    public static double haversineMeters(double lat1, double lng1, double lat2, double lng2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLng = Math.toRadians(lng2 - lng1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
+                * Math.sin(dLng / 2) * Math.sin(dLng / 2);
+        return 2 * EARTH_RADIUS_M * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+}
@@ -0,0 +1,26 @@
+package org.example.shared.geo;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/** Great-circle distance, inflated by a road detour factor, at a constant average speed. */
+@Component
+public class StraightLineEtaModel implements EtaModel {
+
+    private final double detourFactor;
+    private final double metersPerMilli;
+
+    public StraightLineEtaModel(
+            @Value("${app.eta.detour-factor:1.3}") double detourFactor,
+            @Value("${app.eta.average-speed-kmh:25}") double averageSpeedKmh
+    ) {
+        this.detourFactor = detourFactor;
+        this.metersPerMilli = averageSpeedKmh * 1000 / 3_600_000d;
+    }
+
+    @Override
+    public long travelMillis(double fromLat, double fromLng, double toLat, double toLng) {
+        double meters = GeoUtils.haversineMeters(fromLat, fromLng, toLat, toLng) * detourFactor;
+        return (long) (meters / metersPerMilli);
+    }
+}
@@ -0,0 +1,20 @@
+package org.example.shared.id;
+
+import org.hibernate.annotations.IdGeneratorType;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Assigns a {@link UuidV7} to a UUID {@code @Id} on insert, in place of {@code @GeneratedValue}.
+ *
+ * Rows created before keep their random ids: those are in issued JWT subjects, realtime channel
+ * names, track file names, event history and client URLs, so rewriting keys would break them.
+ * The random ids stay valid, and new rows append in order within the v7 range.
+ */
+@IdGeneratorType(TimeOrderedIdGenerator.class)
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.FIELD, ElementType.METHOD})
+public @interface TimeOrderedId {}
@@ -0,0 +1,43 @@
+package org.example.shared.id;
+
+import java.security.SecureRandom;
+import java.util.UUID;
+
+/**
+ * Time-ordered UUIDs (RFC 9562 version 7): 48-bit Unix milliseconds, then a 12-bit counter that
+ * keeps ids from this process strictly increasing within a millisecond, then 62 random bits.
+ *
+ * Stored big-endian in a BINARY(16) key, consecutive ids land next to each other at the right edge
+ * of the index instead of on random pages, and sort by creation time.
+ */
+public final class UuidV7 {
+    private static final SecureRandom RANDOM = new SecureRandom();
+    private static final int COUNTER_MAX = 0xFFF;
+
+    private static long lastMs = -1;
+    private static int counter;
+
+    private UuidV7() {}
+
+    public static UUID next() {
+        long ms;
+        int seq;
+        synchronized (UuidV7.class) {
+            long now = System.currentTimeMillis();
+            if (now > lastMs) {
+                lastMs = now;
+                counter = RANDOM.nextInt(COUNTER_MAX / 2); // random start leaves room to count up
+            } else if (counter < COUNTER_MAX) {
+                counter++; // same millisecond, or the clock stepped back: keep counting on lastMs
+            } else {
+                lastMs++; // counter exhausted: borrow the next millisecond
+                counter = 0;
+            }
+            ms = lastMs;
+            seq = counter;
+        }
+        long msb = (ms << 16) | 0x7000L | seq;
+        long lsb = (RANDOM.nextLong() & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L;
+        return new UUID(msb, lsb);
+    }
+}
@@ -0,0 +1,400 @@
+package org.example.shared.migration;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.util.StreamUtils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Owns the MySQL schema: applies the versioned scripts in db/migration (V&lt;n&gt;__&lt;description&gt;.sql)
+ * in order and records each one in schema_migrations. The application never runs it (ddl-auto is
+ * none); it is a separate step before a deploy, e.g. from the built jar:
+ *
+ * <pre>
+ * java -Dloader.main=org.example.shared.migration.SchemaMigrator -cp app.jar \
+ *      org.springframework.boot.loader.launch.PropertiesLauncher [migrate|verify|info|convert-uuids]
+ * </pre>
+ *
+ * It connects with SPRING_DATASOURCE_URL / _USERNAME / _PASSWORD, like the application.
+ * <ul>
+ *   <li>migrate (default): apply pending scripts under a named lock, so concurrent runs queue up.
+ *   An applied script whose statements changed is an error; add a new version instead. The checksum
+ *   covers the statements only, so comments can be corrected. Refuses to run
+ *   while a UUID column is not BINARY(16) (a schema created by an older Hibernate); run
+ *   convert-uuids first.</li>
+ *   <li>verify: check that UUID columns are BINARY(16). The query plans are checked by
+ *   RepositoryQueryPlanTest, which EXPLAINs the SQL the repositories actually generate.</li>
+ *   <li>info: list applied and pending versions.</li>
+ *   <li>convert-uuids: rewrite legacy UUID columns (CHAR(36) text, or BINARY(n) holding the 16 bytes
+ *   padded with zeros) to BINARY(16) in place, keeping their indexes; the foreign keys on them are
+ *   dropped for the conversion and re-created. Takes the migration lock; stop the application
+ *   first. Safe to re-run after a failure.</li>
+ * </ul>
+ * Scripts are split on ';' at the end of a line and must not use it inside literals. MySQL commits
+ * DDL implicitly, so a failing script leaves the statements before it applied; every statement
+ * should be safe to re-run. A CREATE INDEX or ADD COLUMN whose name already exists is skipped, which
+ * lets the scripts adopt indexes and columns created by hand.
+ */
+public final class SchemaMigrator {
+    private static final Logger log = LoggerFactory.getLogger(SchemaMigrator.class);
+
+    private static final String LOCATION = "classpath*:db/migration/V*__*.sql";
+    private static final Pattern FILE_NAME = Pattern.compile("V(\\d+)__(.+)\\.sql");
+    private static final String LOCK_NAME = "schema_migrations";
+    private static final int LOCK_TIMEOUT_SECONDS = 300;
+    private static final int ER_DUP_FIELDNAME = 1060;
+    private static final int ER_DUP_KEYNAME = 1061;
+    // checksums recorded for scripts whose comments were corrected before checksums ignored them
+    private static final Map<Integer, String> REWORDED = Map.of(
+            2, "4b062579b44efbfb4ab7c959065e0d72697fe21bcc0fc1aafab270bfbd5b5338");
+
+    record Migration(int version, String description, String sql, String checksum, String fileChecksum) {}
+
+    /** UUID columns, each expected to hold the 16 raw bytes (ids are time-ordered UUIDv7). */
+    static final List<String> UUID_COLUMNS = List.of(
+            "users.id", "missions.id", "missions.owner_id", "missions.driver_id",
+            "mission_outbox.mission_id", "mission_events.mission_id");
+
+    /** Foreign keys between UUID columns: name, table, column, referenced table, referenced column. */
+    private static final List<String[]> UUID_FOREIGN_KEYS = List.of(
+            new String[]{"fk_missions_owner", "missions", "owner_id", "users", "id"},
+            new String[]{"fk_missions_driver", "missions", "driver_id", "users", "id"});
+
+    private SchemaMigrator() {}
+
+    public static void main(String[] args) {
+        String command = args.length > 0 ? args[0] : "migrate";
+        try (Connection connection = connect()) {
+            switch (command) {
+                case "migrate" -> migrate(connection);
+                case "verify" -> {
+                    if (!verify(connection)) System.exit(1);
+                }
+                case "info" -> info(connection);
+                case "convert-uuids" -> convertUuids(connection);
+                default -> {
+                    log.error("Unknown command '{}', expected migrate, verify, info or convert-uuids", command);
+                    System.exit(2);
+                }
+            }
+        } catch (Exception e) {
+            log.error("Schema migration failed: {}", e.toString());
+            System.exit(1);
+        }
+    }
+
+    /* ======================= Commands ======================= */
+
+    static void migrate(Connection connection) throws SQLException, IOException {
+        ensureHistoryTable(connection);
+        lock(connection);
+        try {
+            Map<String, String> legacy = legacyUuidColumns(connection);
+            if (!legacy.isEmpty()) {
+                throw new IllegalStateException("UUID columns are not BINARY(16): " + legacy
+                        + "; run convert-uuids first (see README_DEPLOY_RENDER.md)");
+            }
+            Map<Integer, String> applied = applied(connection);
+            int count = 0;
+            for (Migration m : load()) {
+                String checksum = applied.get(m.version());
+                if (checksum != null) {
+                    if (checksum.equals(m.checksum())) continue;
+                    // recorded over the whole file by an earlier migrator: adopt the statement checksum
+                    if (!checksum.equals(m.fileChecksum()) && !checksum.equals(REWORDED.get(m.version()))) {
+                        throw new IllegalStateException("V" + m.version() + " was changed after it was applied");
+                    }
+                    updateChecksum(connection, m);
+                    continue;
+                }
+                apply(connection, m);
+                count++;
+            }
+            log.info("Schema is up to date ({} migration(s) applied)", count);
+        } finally {
+            unlock(connection);
+        }
+    }
+
+    static boolean verify(Connection connection) throws SQLException {
+        boolean ok = true;
+        Map<String, String> types = uuidColumnTypes(connection);
+        for (String column : UUID_COLUMNS) {
+            String type = types.get(column);
+            if ("binary(16)".equalsIgnoreCase(type)) {
+                log.info("OK   {} is {}", column, type);
+            } else {
+                log.error("FAIL {} is {}, expected binary(16)", column, type);
+                ok = false;
+            }
+        }
+        return ok;
+    }
+
+    static void convertUuids(Connection connection) throws SQLException {
+        lock(connection);
+        try {
+            Map<String, String> legacy = legacyUuidColumns(connection);
+            if (legacy.isEmpty() && missingForeignKeys(connection).isEmpty()) {
+                log.info("UUID columns are already BINARY(16)");
+                return;
+            }
+            try (Statement st = connection.createStatement()) {
+                // every foreign key on a UUID column, whatever Hibernate named it, blocks MODIFY
+                for (String[] fk : uuidForeignKeys(connection)) {
+                    log.info("Dropping foreign key {}.{}", fk[0], fk[1]);
+                    st.execute("ALTER TABLE " + fk[0] + " DROP FOREIGN KEY " + fk[1]);
+                }
+                for (Map.Entry<String, String> e : legacy.entrySet()) {
+                    String[] tc = e.getKey().split("\\.");
+                    String table = tc[0], column = tc[1];
+                    String nullability = isNullable(connection, table, column) ? "NULL" : "NOT NULL";
+                    log.info("Converting {} from {}", e.getKey(), e.getValue());
+                    // bytes are kept through VARBINARY, then reduced to the 16-byte form: text UUIDs
+                    // are unhexed, zero-padded binaries cut; rows already converted are left alone
+                    st.execute("ALTER TABLE " + table + " MODIFY " + column + " VARBINARY(255) " + nullability);
+                    st.execute("UPDATE " + table + " SET " + column + " = CASE"
+                            + " WHEN LENGTH(" + column + ") = 36 THEN UNHEX(REPLACE(" + column + ", '-', ''))"
+                            + " WHEN LENGTH(" + column + ") > 16 THEN LEFT(" + column + ", 16)"
+                            + " ELSE " + column + " END");
+                    st.execute("ALTER TABLE " + table + " MODIFY " + column + " BINARY(16) " + nullability);
+                }
+                for (String[] fk : missingForeignKeys(connection)) {
+                    log.info("Creating foreign key {}", fk[0]);
+                    st.execute("ALTER TABLE " + fk[1] + " ADD CONSTRAINT " + fk[0] + " FOREIGN KEY (" + fk[2]
+                            + ") REFERENCES " + fk[3] + " (" + fk[4] + ")");
+                }
+            }
+            log.info("UUID columns converted: {}", legacy.keySet());
+        } finally {
+            unlock(connection);
+        }
+    }
+
+    static void info(Connection connection) throws SQLException, IOException {
+        ensureHistoryTable(connection);
+        Map<Integer, String> applied = applied(connection);
+        for (Migration m : load()) {
+            log.info("V{} {} {}", m.version(), m.description(), applied.containsKey(m.version()) ? "applied" : "pending");
+        }
+    }
+
+    /* ======================= Helpers ======================= */
+
+    private static Connection connect() throws SQLException {
+        String url = System.getenv("SPRING_DATASOURCE_URL");
+        if (url == null || url.isBlank()) throw new IllegalStateException("SPRING_DATASOURCE_URL is not set");
+        return DriverManager.getConnection(url,
+                System.getenv("SPRING_DATASOURCE_USERNAME"), System.getenv("SPRING_DATASOURCE_PASSWORD"));
+    }
+
+    static List<Migration> load() throws IOException {
+        List<Migration> migrations = new ArrayList<>();
+        Map<Integer, String> seen = new HashMap<>();
+        for (Resource r : new PathMatchingResourcePatternResolver().getResources(LOCATION)) {
+            Matcher name = FILE_NAME.matcher(r.getFilename() != null ? r.getFilename() : "");
+            if (!name.matches()) continue;
+            int version = Integer.parseInt(name.group(1));
+            if (seen.put(version, r.getFilename()) != null) {
+                throw new IllegalStateException("Duplicate migration version V" + version);
+            }
+            String sql = StreamUtils.copyToString(r.getInputStream(), StandardCharsets.UTF_8);
+            migrations.add(new Migration(version, name.group(2).replace('_', ' '), sql,
+                    sha256(String.join(";\n", statements(sql))), sha256(sql)));
+        }
+        migrations.sort(Comparator.comparingInt(Migration::version));
+        return migrations;
+    }
+
+    private static void apply(Connection connection, Migration m) throws SQLException {
+        log.info("Applying V{} {}", m.version(), m.description());
+        try (Statement st = connection.createStatement()) {
+            for (String statement : statements(m.sql())) {
+                try {
+                    st.execute(statement);
+                } catch (SQLException e) {
+                    if (alreadyPresent(e, statement)) {
+                        log.info("  already present, skipped: {}", statement);
+                        continue;
+                    }
+                    throw e;
+                }
+            }
+        }
+        try (PreparedStatement ps = connection.prepareStatement(
+                "INSERT INTO schema_migrations (version, description, checksum, applied_at) VALUES (?, ?, ?, ?)")) {
+            ps.setInt(1, m.version());
+            ps.setString(2, m.description());
+            ps.setString(3, m.checksum());
+            ps.setTimestamp(4, Timestamp.from(Instant.now()));
+            ps.executeUpdate();
+        }
+    }
+
+    private static void updateChecksum(Connection connection, Migration m) throws SQLException {
+        try (PreparedStatement ps = connection.prepareStatement("UPDATE schema_migrations SET checksum = ? WHERE version = ?")) {
+            ps.setString(1, m.checksum());
+            ps.setInt(2, m.version());
+            ps.executeUpdate();
+        }
+    }
+
+    // table.column -> column_type of the UUID columns whose table exists
+    private static Map<String, String> uuidColumnTypes(Connection connection) throws SQLException {
+        Map<String, String> types = new HashMap<>();
+        try (PreparedStatement ps = connection.prepareStatement("SELECT column_type FROM information_schema.columns"
+                + " WHERE table_schema = DATABASE() AND table_name = ? AND column_name = ?")) {
+            for (String column : UUID_COLUMNS) {
+                String[] tc = column.split("\\.");
+                ps.setString(1, tc[0]);
+                ps.setString(2, tc[1]);
+                try (ResultSet rs = ps.executeQuery()) {
+                    if (rs.next()) types.put(column, rs.getString(1));
+                }
+            }
+        }
+        return types;
+    }
+
+    // existing UUID columns that are not BINARY(16), in UUID_COLUMNS order
+    private static Map<String, String> legacyUuidColumns(Connection connection) throws SQLException {
+        Map<String, String> types = uuidColumnTypes(connection);
+        Map<String, String> legacy = new LinkedHashMap<>();
+        for (String column : UUID_COLUMNS) {
+            String type = types.get(column);
+            if (type != null && !"binary(16)".equalsIgnoreCase(type)) legacy.put(column, type);
+        }
+        return legacy;
+    }
+
+    private static boolean isNullable(Connection connection, String table, String column) throws SQLException {
+        try (PreparedStatement ps = connection.prepareStatement("SELECT is_nullable FROM information_schema.columns"
+                + " WHERE table_schema = DATABASE() AND table_name = ? AND column_name = ?")) {
+            ps.setString(1, table);
+            ps.setString(2, column);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() && "YES".equalsIgnoreCase(rs.getString(1));
+            }
+        }
+    }
+
+    // [table, constraint] of every foreign key from or to a UUID column
+    private static List<String[]> uuidForeignKeys(Connection connection) throws SQLException {
+        List<String[]> out = new ArrayList<>();
+        try (Statement st = connection.createStatement();
+             ResultSet rs = st.executeQuery("SELECT DISTINCT table_name, constraint_name, column_name,"
+                     + " referenced_table_name, referenced_column_name FROM information_schema.key_column_usage"
+                     + " WHERE table_schema = DATABASE() AND referenced_table_name IS NOT NULL")) {
+            while (rs.next()) {
+                String from = rs.getString(1) + "." + rs.getString(3);
+                String to = rs.getString(4) + "." + rs.getString(5);
+                if (UUID_COLUMNS.contains(from) || UUID_COLUMNS.contains(to)) {
+                    out.add(new String[]{rs.getString(1), rs.getString(2)});
+                }
+            }
+        }
+        return out;
+    }
+
+    private static List<String[]> missingForeignKeys(Connection connection) throws SQLException {
+        List<String[]> missing = new ArrayList<>();
+        try (PreparedStatement ps = connection.prepareStatement("SELECT 1 FROM information_schema.table_constraints"
+                + " WHERE table_schema = DATABASE() AND constraint_type = 'FOREIGN KEY' AND constraint_name = ?")) {
+            for (String[] fk : UUID_FOREIGN_KEYS) {
+                ps.setString(1, fk[0]);
+                try (ResultSet rs = ps.executeQuery()) {
+                    if (!rs.next()) missing.add(fk);
+                }
+            }
+        }
+        return missing;
+    }
+
+    private static boolean alreadyPresent(SQLException e, String statement) {
+        String s = statement.toUpperCase(Locale.ROOT);
+        return (e.getErrorCode() == ER_DUP_KEYNAME && s.startsWith("CREATE INDEX"))
+                || (e.getErrorCode() == ER_DUP_FIELDNAME && s.startsWith("ALTER TABLE") && s.contains(" ADD COLUMN "));
+    }
+
+    // drop "--" comment lines, then split on ';' at end of line
+    static List<String> statements(String sql) {
+        StringBuilder body = new StringBuilder();
+        for (String line : sql.split("\\R")) {
+            if (!line.trim().startsWith("--")) body.append(line).append('\n');
+        }
+        List<String> out = new ArrayList<>();
+        for (String s : body.toString().split(";\\s*(\\n|$)")) {
+            if (!s.isBlank()) out.add(s.trim());
+        }
+        return out;
+    }
+
+    private static void ensureHistoryTable(Connection connection) throws SQLException {
+        try (Statement st = connection.createStatement()) {
+            st.execute("CREATE TABLE IF NOT EXISTS schema_migrations ("
+                    + " version INT NOT NULL PRIMARY KEY,"
+                    + " description VARCHAR(255) NOT NULL,"
+                    + " checksum CHAR(64) NOT NULL,"
+                    + " applied_at DATETIME(6) NOT NULL"
+                    + ") ENGINE=InnoDB");
+        }
+    }
+
+    private static Map<Integer, String> applied(Connection connection) throws SQLException {
+        Map<Integer, String> out = new HashMap<>();
+        try (Statement st = connection.createStatement();
+             ResultSet rs = st.executeQuery("SELECT version, checksum FROM schema_migrations")) {
+            while (rs.next()) out.put(rs.getInt(1), rs.getString(2));
+        }
+        return out;
+    }
+
+    private static void lock(Connection connection) throws SQLException {
+        try (PreparedStatement ps = connection.prepareStatement("SELECT GET_LOCK(?, ?)")) {
+            ps.setString(1, LOCK_NAME);
+            ps.setInt(2, LOCK_TIMEOUT_SECONDS);
+            try (ResultSet rs = ps.executeQuery()) {
+                if (!rs.next() || rs.getInt(1) != 1) throw new IllegalStateException("Could not take the migration lock");
+            }
+        }
+    }
+
+    private static void unlock(Connection connection) throws SQLException {
+        try (PreparedStatement ps = connection.prepareStatement("SELECT RELEASE_LOCK(?)")) {
+            ps.setString(1, LOCK_NAME);
+            ps.executeQuery().close();
+        }
+    }
+
+    private static String sha256(String s) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(s.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -4,6 +4,7 @@ import com.auth0.jwt.JWT;
 import com.auth0.jwt.algorithms.Algorithm;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.io.ClassPathResource;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -14,14 +15,33 @@ import java.security.KeyFactory;
 import java.security.interfaces.RSAPrivateKey;
 import java.security.spec.PKCS8EncodedKeySpec;
 import java.time.Instant;
+import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
-
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Signs Centrifugo connection and subscription JWTs.
+ *
+ * Issued tokens are cached per (subject, channel, info) and handed out again while more than
+ * {@code min-remaining-fraction} of their lifetime is left, so a reconnect storm signs each
+ * token once instead of once per request (RSA signing is the expensive part).
+ */
 @Service
 public class CentrifugoTokenService {
 
     private static final Logger log = LoggerFactory.getLogger(CentrifugoTokenService.class);
 
+    public record CacheStats(long hits, long misses, long evictions, int size) {}
+
+    /** channel is null for connection tokens; info is only set for connection tokens. */
+    private record Key(String subject, String channel, Map<String, Object> info) {}
+
+    private record Issued(String token, long expiresAtMs) {}
+
     @Value("${app.centrifugo.token-hmac-secret-key:dev_hmac_fallback_1234567890abcdef}")
     private String hmacSecret;
 
@@ -31,11 +51,31 @@ public class CentrifugoTokenService {
     @Value("${app.centrifugo.private-key-path:}")
     private String privateKeyPath;
 
+    @Value("${app.centrifugo.token-cache.max-entries:50000}")
+    private int cacheMaxEntries;
+
+    @Value("${app.centrifugo.token-cache.min-remaining-fraction:0.5}")
+    private double minRemainingFraction;
+
     private Algorithm algorithm;
     private String mode;
+    private Map<Key, Issued> cache;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong lastLoggedLookups = new AtomicLong();
 
     @PostConstruct
     public void init() {
+        this.cache = new LinkedHashMap<>(1024, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Issued> eldest) {
+                if (size() <= cacheMaxEntries) return false;
+                evictions.incrementAndGet();
+                return true;
+            }
+        };
+
         boolean triedRsa = false;
 
         // Try RSA first if path is provided
@@ -79,24 +119,64 @@ public class CentrifugoTokenService {
     }
 
     public String issueConnectionToken(String userId, Map<String, Object> info) {
-        Instant exp = Instant.now().plusSeconds(ttlSeconds);
-        var builder = JWT.create()
-                .withSubject(userId)
-                .withExpiresAt(Date.from(exp));
-
-        if (info != null && !info.isEmpty()) {
-            builder.withClaim("info", info);
-        }
+        Map<String, Object> claims = info == null || info.isEmpty()
+                ? Map.of()
+                : Collections.unmodifiableMap(new HashMap<>(info));
+        return cached(new Key(userId, null, claims), exp -> {
+            var builder = JWT.create()
+                    .withSubject(userId)
+                    .withExpiresAt(exp);
+
+            if (!claims.isEmpty()) {
+                builder.withClaim("info", claims);
+            }
 
-        return builder.sign(algorithm);
+            return builder.sign(algorithm);
+        });
     }
 
     public String issueSubscriptionToken(String userId, String channel) {
-        Instant exp = Instant.now().plusSeconds(ttlSeconds);
-        return JWT.create()
+        return cached(new Key(userId, channel, Map.of()), exp -> JWT.create()
                 .withSubject(userId)
-                .withExpiresAt(Date.from(exp))
+                .withExpiresAt(exp)
                 .withClaim("channel", channel)
-                .sign(algorithm);
+                .sign(algorithm));
+    }
+
+    public CacheStats cacheStats() {
+        synchronized (cache) {
+            return new CacheStats(hits.get(), misses.get(), evictions.get(), cache.size());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.centrifugo.token-cache.stats-log-interval-ms:300000}")
+    public void logCacheStats() {
+        long lookups = hits.get() + misses.get();
+        if (lookups == lastLoggedLookups.getAndSet(lookups)) return; // nothing new since last time
+        log.info("Centrifugo token cache stats={}", cacheStats());
+    }
+
+    /* ======================= Helpers ======================= */
+
+    private String cached(Key key, Function<Date, String> sign) {
+        long now = System.currentTimeMillis();
+        long minRemainingMs = (long) (ttlSeconds * 1000 * minRemainingFraction);
+        synchronized (cache) {
+            Issued issued = cache.get(key);
+            if (issued != null && issued.expiresAtMs() - now > minRemainingMs) {
+                hits.incrementAndGet();
+                return issued.token();
+            }
+        }
+        // sign outside the lock; concurrent misses for one key may both sign, last one wins
+        misses.incrementAndGet();
+        // exp is whole seconds in the JWT; keep the cached expiry identical
+        Date exp = Date.from(Instant.ofEpochSecond(now / 1000 + ttlSeconds));
+        long expiresAtMs = exp.getTime();
+        String token = sign.apply(exp);
+        synchronized (cache) {
+            cache.put(key, new Issued(token, expiresAtMs));
+        }
+        return token;
     }
 }
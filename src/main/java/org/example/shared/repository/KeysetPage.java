@@ -0,0 +1,6 @@
+package org.example.shared.repository;
+
+import java.util.List;
+
+/** A page of results plus the cursor of the next page (null on the last page). */
+public record KeysetPage<T>(List<T> items, String nextCursor) {}
@@ -0,0 +1,25 @@
+package org.example.shared.repository;
+
+import org.example.shared.entity.MissionEventCounter;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.UUID;
+
+public interface MissionEventCounterRepository extends JpaRepository<MissionEventCounter, UUID> {
+
+    /**
+     * Advance the mission's counter by one in one atomic statement, creating it at 1 on first use.
+     * The new value is left in LAST_INSERT_ID() of this connection: call {@link #lastInsertId()} in
+     * the same transaction.
+     */
+    @Modifying
+    @Query(value = "insert into mission_event_counters (mission_id, last_seq) values (:missionId, last_insert_id(1))"
+            + " on duplicate key update last_seq = last_insert_id(last_seq + 1)", nativeQuery = true)
+    void advance(@Param("missionId") UUID missionId);
+
+    @Query(value = "select last_insert_id()", nativeQuery = true)
+    Number lastInsertId();
+}
@@ -0,0 +1,32 @@
+package org.example.shared.repository;
+
+import org.example.shared.entity.MissionEventRecord;
+import org.example.shared.entity.MissionStatus;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+public interface MissionEventRepository extends JpaRepository<MissionEventRecord, MissionEventRecord.Key> {
+
+    @Query("select max(e.seq) from MissionEventRecord e where e.missionId = :missionId")
+    Long findMaxSeq(@Param("missionId") UUID missionId);
+
+    List<MissionEventRecord> findByMissionIdAndSeqGreaterThanOrderBySeqAsc(UUID missionId, long afterSeq, Pageable page);
+
+    /** Missions with stored events that ended (in one of the statuses) before the cutoff. */
+    @Query("select distinct e.missionId from MissionEventRecord e, Mission m where m.id = e.missionId"
+            + " and m.status in :statuses and coalesce(m.deliveredAt, m.updatedAt, m.createdAt) < :cutoff")
+    List<UUID> findEndedMissionIds(@Param("statuses") Collection<MissionStatus> statuses,
+                                   @Param("cutoff") Instant cutoff, Pageable page);
+
+    @Modifying
+    @Query("delete from MissionEventRecord e where e.missionId in :missionIds")
+    int deleteByMissionIds(@Param("missionIds") Collection<UUID> missionIds);
+}
@@ -0,0 +1,29 @@
+package org.example.shared.repository;
+
+import jakarta.persistence.LockModeType;
+import org.example.shared.entity.MissionOutboxEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface MissionOutboxRepository extends JpaRepository<MissionOutboxEvent, Long> {
+    // Oldest rows, locked only for the short claim transaction that leases them
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select e from MissionOutboxEvent e order by e.id asc")
+    List<MissionOutboxEvent> findOldestForUpdate(Pageable page);
+
+    @Modifying
+    @Query("delete from MissionOutboxEvent e where e.id in :ids and e.leaseOwner = :owner")
+    int deleteLeased(@Param("ids") Collection<Long> ids, @Param("owner") String owner);
+
+    @Modifying
+    @Query("update MissionOutboxEvent e set e.leaseOwner = null, e.leaseUntil = null " +
+           "where e.id in :ids and e.leaseOwner = :owner")
+    int releaseLease(@Param("ids") Collection<Long> ids, @Param("owner") String owner);
+}
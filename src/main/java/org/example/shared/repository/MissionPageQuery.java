@@ -0,0 +1,45 @@
+package org.example.shared.repository;
+
+import org.example.shared.entity.MissionStatus;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * One page of a mission listing, newest first. Exactly one of ownerId/driverId scopes the query;
+ * the other filters are optional. {@code after} is the (createdAt, id) of the last row already seen.
+ */
+public record MissionPageQuery(
+    UUID ownerId,
+    UUID driverId,
+    Set<MissionStatus> statuses,
+    Instant from,
+    Instant to,
+    String city,
+    Cursor after,
+    int limit
+) {
+    /** Keyset position; serialized as an opaque URL-safe token. */
+    public record Cursor(Instant createdAt, UUID id) {
+
+        public String encode() {
+            String raw = createdAt + "_" + id;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+
+        /** @throws IllegalArgumentException if the token is not one of ours */
+        public static Cursor decode(String token) {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int sep = raw.indexOf('_');
+            if (sep < 0) throw new IllegalArgumentException("Malformed cursor");
+            try {
+                return new Cursor(Instant.parse(raw.substring(0, sep)), UUID.fromString(raw.substring(sep + 1)));
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Malformed cursor", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package org.example.shared.repository;
+
+import org.example.shared.entity.MissionReferenceBlock;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+public interface MissionReferenceBlockRepository extends JpaRepository<MissionReferenceBlock, String> {
+
+    /**
+     * Advance the day's counter by {@code size} in one atomic statement, creating it at 0 on first
+     * use. The new counter value is left in LAST_INSERT_ID() of this connection: the leased block is
+     * [value - size, value). Call {@link #lastInsertId()} in the same transaction.
+     */
+    @Modifying
+    @Query(value = "insert into mission_reference_blocks (day, next_value) values (:day, last_insert_id(:size))"
+            + " on duplicate key update next_value = last_insert_id(next_value + :size)", nativeQuery = true)
+    void lease(@Param("day") String day, @Param("size") long size);
+
+    @Query(value = "select last_insert_id()", nativeQuery = true)
+    Number lastInsertId();
+}
@@ -1,13 +1,48 @@
 package org.example.shared.repository;
 
 import org.example.shared.entity.Mission;
+import org.example.shared.entity.MissionStatus;
 import org.example.shared.entity.User;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
-public interface MissionRepository extends JpaRepository<Mission, UUID> {
+public interface MissionRepository extends JpaRepository<Mission, UUID>, MissionRepositoryCustom {
     List<Mission> findByOwner(User owner);
     List<Mission> findByDriver(User driver);
+    List<Mission> findByStatusIn(Collection<MissionStatus> statuses);
+    List<Mission> findByStatusOrderByCreatedAtAsc(MissionStatus status, Pageable page);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    List<Mission> findByIdIn(Collection<UUID> ids);
+
+    /** [driverId, count] of the drivers' missions in the given statuses; drivers without any are absent. */
+    @Query("select m.driver.id, count(m) from Mission m where m.driver.id in :driverIds and m.status in :statuses group by m.driver.id")
+    List<Object[]> countByDrivers(@Param("driverIds") Collection<UUID> driverIds, @Param("statuses") Collection<MissionStatus> statuses);
+
+    @Query("select count(m) > 0 from Mission m where m.id = :id and (m.owner.id = :userId or m.driver.id = :userId)")
+    boolean isParticipant(@Param("id") UUID id, @Param("userId") UUID userId);
+
+    /** Ids of the owner's missions in the given statuses; one index range, unlike an owner-or-driver OR. */
+    @Query("select m.id from Mission m where m.owner.id = :ownerId and m.status in :statuses")
+    List<UUID> findIdsByOwner(@Param("ownerId") UUID ownerId, @Param("statuses") Collection<MissionStatus> statuses);
+
+    /** Ids of the driver's missions in the given statuses. */
+    @Query("select m.id from Mission m where m.driver.id = :driverId and m.status in :statuses")
+    List<UUID> findIdsByDriver(@Param("driverId") UUID driverId, @Param("statuses") Collection<MissionStatus> statuses);
+
+    /** Store an ETA computed while the mission was in {@code status} with {@code driverId}, if it still is. */
+    @Modifying
+    @Query("update Mission m set m.eta = :eta where m.id = :id and m.status = :status and m.driver.id = :driverId")
+    int updateEta(@Param("id") UUID id, @Param("eta") Instant eta, @Param("status") MissionStatus status,
+                  @Param("driverId") UUID driverId);
 }
@@ -0,0 +1,28 @@
+package org.example.shared.repository;
+
+import org.example.dispatcher.dto.MissionDto;
+import org.example.shared.entity.MissionStatus;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Read path for the mission endpoints: rows are selected straight into DTOs, so no Mission or User
+ * entity is hydrated (and the owner row is never touched).
+ */
+public interface MissionRepositoryCustom {
+
+    /** Up to {@code query.limit()} missions after the cursor, ordered by (createdAt, id) descending. */
+    List<MissionDto> findPage(MissionPageQuery query);
+
+    Optional<MissionView> findView(UUID missionId);
+
+    /**
+     * Driver transition as one conditional UPDATE: sets the status, its timestamp, updatedAt and
+     * (when given) the ETA, and bumps the version, only if the mission is still in {@code from} and
+     * assigned to the driver. Returns the number of rows changed, 0 or 1.
+     */
+    int transition(UUID missionId, UUID driverId, MissionStatus from, MissionStatus to, Instant at, Instant eta);
+}
@@ -0,0 +1,181 @@
+package org.example.shared.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import jakarta.persistence.TypedQuery;
+import org.example.common.dto.AddressDto;
+import org.example.common.dto.UserDto;
+import org.example.dispatcher.dto.MissionDto;
+import org.example.shared.entity.MissionStatus;
+import org.example.shared.entity.UserRole;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Scalar projections of missions. One left join brings the driver's public fields; the owner is
+ * only referenced through missions.owner_id. Listings use keyset pagination, and the WHERE clause is
+ * assembled from the filters that are actually set, so each shape maps onto one of the
+ * (owner_id|driver_id, ..., created_at) indexes and MySQL walks it in order, stopping after limit
+ * rows however long the history is. A filter on several statuses would read the (..., status,
+ * created_at) index as several ranges and sort them, so it runs as one ordered query per status,
+ * merged here.
+ */
+public class MissionRepositoryImpl implements MissionRepositoryCustom {
+
+    // column order is what toView reads
+    private static final String SELECT_VIEW = "select m.id, m.reference, m.status,"
+            + " m.pickup.line1, m.pickup.city, m.pickup.postalCode, m.pickup.notes, m.pickup.lat, m.pickup.lng,"
+            + " m.dropoff.line1, m.dropoff.city, m.dropoff.postalCode, m.dropoff.notes, m.dropoff.lat, m.dropoff.lng,"
+            + " m.createdAt, m.updatedAt, m.assignedAt, m.pickedUpAt, m.inTransitAt, m.deliveredAt,"
+            + " m.eta, m.priceEstimate, d.id, d.name, d.email, d.phone, d.role,"
+            + " m.parcelSize, m.parcelNotes, m.owner.id"
+            + " from Mission m left join m.driver d";
+
+    @PersistenceContext
+    private EntityManager em;
+
+    @Override
+    public List<MissionDto> findPage(MissionPageQuery q) {
+        List<Object[]> rows;
+        if (q.statuses() == null || q.statuses().isEmpty()) {
+            rows = pageRows(q, null);
+        } else if (q.statuses().size() == 1) {
+            rows = pageRows(q, q.statuses().iterator().next());
+        } else {
+            // each per-status page is already in order; the first limit rows of their union are the page
+            rows = new ArrayList<>();
+            for (MissionStatus status : q.statuses()) rows.addAll(pageRows(q, status));
+            rows.sort(NEWEST_FIRST);
+            if (rows.size() > q.limit()) rows = rows.subList(0, q.limit());
+        }
+        List<MissionDto> out = new ArrayList<>(rows.size());
+        for (Object[] row : rows) out.add(toView(row).mission());
+        return out;
+    }
+
+    @Override
+    public Optional<MissionView> findView(UUID missionId) {
+        return em.createQuery(SELECT_VIEW + " where m.id = :id", Object[].class)
+                .setParameter("id", missionId)
+                .getResultStream()
+                .findFirst()
+                .map(MissionRepositoryImpl::toView);
+    }
+
+    @Override
+    public int transition(UUID missionId, UUID driverId, MissionStatus from, MissionStatus to, Instant at, Instant eta) {
+        String stampedAt;
+        if (to == MissionStatus.PICKED_UP) stampedAt = "pickedUpAt";
+        else if (to == MissionStatus.IN_TRANSIT) stampedAt = "inTransitAt";
+        else if (to == MissionStatus.DELIVERED) stampedAt = "deliveredAt";
+        else throw new IllegalArgumentException("Not a driver transition: " + to);
+
+        String jpql = "update Mission m set m.status = :to, m." + stampedAt + " = :at, m.updatedAt = :at,"
+                + (eta != null ? " m.eta = :eta," : "")
+                + " m.version = m.version + 1"
+                + " where m.id = :id and m.driver.id = :driverId and m.status = :from";
+        Query update = em.createQuery(jpql)
+                .setParameter("to", to)
+                .setParameter("at", at)
+                .setParameter("id", missionId)
+                .setParameter("driverId", driverId)
+                .setParameter("from", from);
+        if (eta != null) update.setParameter("eta", eta);
+        return update.executeUpdate();
+    }
+
+    /* ======================= Helpers ======================= */
+
+    // (createdAt, id) descending, ids compared as MySQL orders BINARY(16): unsigned, most significant byte first
+    private static final Comparator<Object[]> NEWEST_FIRST = Comparator
+            .comparing((Object[] r) -> (Instant) r[15])
+            .thenComparing((Object[] r) -> (UUID) r[0], (x, y) -> {
+                int c = Long.compareUnsigned(x.getMostSignificantBits(), y.getMostSignificantBits());
+                return c != 0 ? c : Long.compareUnsigned(x.getLeastSignificantBits(), y.getLeastSignificantBits());
+            })
+            .reversed();
+
+    // one keyset page, restricted to a single status when one is given
+    private List<Object[]> pageRows(MissionPageQuery q, MissionStatus status) {
+        StringBuilder jpql = new StringBuilder(SELECT_VIEW).append(" where ");
+        Map<String, Object> params = new HashMap<>();
+
+        if (q.ownerId() != null) {
+            jpql.append("m.owner.id = :ownerId");
+            params.put("ownerId", q.ownerId());
+        } else {
+            jpql.append("d.id = :driverId");
+            params.put("driverId", q.driverId());
+        }
+        if (status != null) {
+            jpql.append(" and m.status = :status");
+            params.put("status", status);
+        }
+        if (q.city() != null) {
+            jpql.append(" and m.pickup.city = :city");
+            params.put("city", q.city());
+        }
+        if (q.from() != null) {
+            jpql.append(" and m.createdAt >= :from");
+            params.put("from", q.from());
+        }
+        if (q.to() != null) {
+            jpql.append(" and m.createdAt < :to");
+            params.put("to", q.to());
+        }
+        if (q.after() != null) {
+            jpql.append(" and (m.createdAt < :afterAt or (m.createdAt = :afterAt and m.id < :afterId))");
+            params.put("afterAt", q.after().createdAt());
+            params.put("afterId", q.after().id());
+        }
+        jpql.append(" order by m.createdAt desc, m.id desc");
+
+        TypedQuery<Object[]> query = em.createQuery(jpql.toString(), Object[].class);
+        params.forEach(query::setParameter);
+        return query.setMaxResults(q.limit()).getResultList();
+    }
+
+    private static MissionView toView(Object[] r) {
+        UUID driverId = (UUID) r[23];
+        UserDto driver = driverId == null ? null
+                : new UserDto(driverId, (String) r[24], (String) r[25], (String) r[26], ((UserRole) r[27]).name());
+        Instant eta = (Instant) r[21];
+        MissionDto mission = new MissionDto(
+                (UUID) r[0],
+                (String) r[1],
+                ((MissionStatus) r[2]).name(),
+                address(r, 3),
+                address(r, 9),
+                (Instant) r[15],
+                (Instant) r[16],
+                (Instant) r[17],
+                (Instant) r[18],
+                (Instant) r[19],
+                (Instant) r[20],
+                eta != null ? eta.toString() : null,
+                (BigDecimal) r[22],
+                driver,
+                (String) r[28],
+                (String) r[29]
+        );
+        return new MissionView((UUID) r[30], driverId, mission);
+    }
+
+    // like an @Embedded Address, all-null columns mean no address
+    private static AddressDto address(Object[] r, int i) {
+        boolean empty = true;
+        for (int k = i; k < i + 6; k++) empty &= r[k] == null;
+        if (empty) return null;
+        return new AddressDto((String) r[i], (String) r[i + 1], (String) r[i + 2], (String) r[i + 3],
+                (Double) r[i + 4], (Double) r[i + 5]);
+    }
+}
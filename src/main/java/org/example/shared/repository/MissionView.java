@@ -0,0 +1,8 @@
+package org.example.shared.repository;
+
+import org.example.dispatcher.dto.MissionDto;
+
+import java.util.UUID;
+
+/** A mission as served by the read path, with the ids needed to authorize access to it. */
+public record MissionView(UUID ownerId, UUID driverId, MissionDto mission) {}
@@ -2,8 +2,13 @@ package org.example.shared.repository;
 
 import org.example.shared.entity.User;
 import org.example.shared.entity.UserRole;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.Optional;
 import java.util.UUID;
 import java.util.List;
@@ -14,4 +19,9 @@ public interface UserRepository extends JpaRepository<User, UUID> {
     List<User> findByRoleOrderByNameAsc(UserRole role);
     List<User> findByRoleAndNameContainingIgnoreCaseOrderByNameAsc(UserRole role, String name);
     List<User> findByRoleAndPhoneContainingIgnoreCaseOrderByNameAsc(UserRole role, String phone);
+
+    // Driver rows are locked by every assignment, so load checks against them see each other's commits
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select u from User u where u.id in :ids")
+    List<User> findAllByIdForUpdate(@Param("ids") Collection<UUID> ids);
 }
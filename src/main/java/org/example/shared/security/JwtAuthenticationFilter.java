@@ -1,5 +1,6 @@
 package org.example.shared.security;
 
+import org.example.shared.datasource.ReadRouting;
 import org.example.shared.entity.User;
 import org.example.shared.repository.UserRepository;
 import org.springframework.http.HttpHeaders;
@@ -23,6 +24,8 @@ import java.util.UUID;
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
+    private static final String STREAM_PATH = "/realtime/sse";
+
     private final JwtService jwtService;
     private final UserRepository userRepository;
 
@@ -46,32 +49,36 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         }
 
         String header = request.getHeader(HttpHeaders.AUTHORIZATION);
+        Optional<String> subOpt = Optional.empty();
         if (StringUtils.hasText(header) && header.startsWith("Bearer ")) {
-            String token = header.substring(7);
-
-            Optional<String> subOpt = jwtService.getSubjectIfValidAccess(token);
-            if (subOpt.isPresent() && SecurityContextHolder.getContext().getAuthentication() == null) {
-                String sub = subOpt.get();
+            subOpt = jwtService.getSubjectIfValidAccess(header.substring(7));
+        } else if (path.equals(STREAM_PATH) && StringUtils.hasText(request.getParameter("token"))) {
+            // EventSource cannot set headers: the SSE stream takes a short-lived stream token instead
+            subOpt = jwtService.getSubjectIfValidStream(request.getParameter("token"));
+        }
+        if (subOpt.isPresent() && SecurityContextHolder.getContext().getAuthentication() == null) {
+            String sub = subOpt.get();
 
-                // Load user
-                Optional<User> userOpt;
-                try {
-                    userOpt = userRepository.findById(UUID.fromString(sub));
-                } catch (IllegalArgumentException ex) {
-                    userOpt = Optional.empty();
-                }
+            // Load user
+            Optional<User> userOpt;
+            try {
+                UUID userId = UUID.fromString(sub);
+                // read-only lookup, served by the replica unless this user has just written
+                userOpt = ReadRouting.asUser(userId, () -> userRepository.findById(userId));
+            } catch (IllegalArgumentException ex) {
+                userOpt = Optional.empty();
+            }
 
-                if (userOpt.isPresent()) {
-                    User user = userOpt.get();
-                    UserPrincipal principal = new UserPrincipal(user);
-                    var auth = new UsernamePasswordAuthenticationToken(
-                        principal,
-                        null,
-                        List.of(new SimpleGrantedAuthority("ROLE_" + user.getRole().name()))
-                    );
-                    auth.setDetails(new org.springframework.security.web.authentication.WebAuthenticationDetailsSource().buildDetails(request));
-                    SecurityContextHolder.getContext().setAuthentication(auth);
-                }
+            if (userOpt.isPresent()) {
+                User user = userOpt.get();
+                UserPrincipal principal = new UserPrincipal(user);
+                var auth = new UsernamePasswordAuthenticationToken(
+                    principal,
+                    null,
+                    List.of(new SimpleGrantedAuthority("ROLE_" + user.getRole().name()))
+                );
+                auth.setDetails(new org.springframework.security.web.authentication.WebAuthenticationDetailsSource().buildDetails(request));
+                SecurityContextHolder.getContext().setAuthentication(auth);
             }
         }
 
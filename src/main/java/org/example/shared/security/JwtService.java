@@ -21,8 +21,10 @@ public class JwtService {
 
     private static final long ACCESS_TTL_SEC  = 9000;                  // 15 min
     private static final long REFRESH_TTL_SEC = 60L * 60L * 24L * 30L; // 30 days
+    private static final long STREAM_TTL_SEC  = 60;                    // only has to last until connect
     private static final String ISS = "https://api.yourapp.local";
     private static final String AUD = "yourapp-spa";
+    private static final String STREAM_AUD = "yourapp-sse";
 
     public JwtService(String accessSecret, String refreshSecret) {
         this.accessKey  = Keys.hmacShaKeyFor(accessSecret.getBytes(StandardCharsets.UTF_8));
@@ -31,6 +33,8 @@ public class JwtService {
 
     public long accessTokenTtlSeconds() { return ACCESS_TTL_SEC; }
 
+    public long streamTokenTtlSeconds() { return STREAM_TTL_SEC; }
+
     public String issueAccessToken(User user) {
         Instant now = Instant.now();
         return Jwts.builder()
@@ -62,9 +66,37 @@ public class JwtService {
             .compact();
     }
 
+    /**
+     * Short-lived token for opening GET /realtime/sse, where EventSource cannot send an
+     * Authorization header and the token ends up in the URL. It is not an access token.
+     */
+    public String issueStreamToken(User user) {
+        Instant now = Instant.now();
+        return Jwts.builder()
+            .header().keyId("access-2025-09").and()
+            .issuer(ISS)
+            .audience().add(STREAM_AUD).and()
+            .subject(user.getId().toString())
+            .issuedAt(Date.from(now))
+            .expiration(Date.from(now.plusSeconds(STREAM_TTL_SEC)))
+            .id(UUID.randomUUID().toString()) // jti
+            .signWith(accessKey)
+            .compact();
+    }
+
     // ---- Parsing helpers (0.12.x) ----
+    // the audience keeps stream tokens (same key) from passing as access tokens, and the reverse
     public Jws<Claims> parseAccessClaims(String token) {
-        return Jwts.parser().verifyWith(accessKey).build().parseSignedClaims(token);
+        return Jwts.parser().verifyWith(accessKey).requireAudience(AUD).build().parseSignedClaims(token);
+    }
+
+    public Optional<String> getSubjectIfValidStream(String token) {
+        try {
+            return Optional.of(Jwts.parser().verifyWith(accessKey).requireAudience(STREAM_AUD).build()
+                .parseSignedClaims(token).getPayload().getSubject());
+        } catch (JwtException e) {
+            return Optional.empty();
+        }
     }
 
     public Jws<Claims> parseRefreshClaims(String token) {
@@ -6,6 +6,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 
+import jakarta.servlet.DispatcherType;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -45,6 +46,8 @@ public class SecurityConfig {
             .sessionManagement(sm -> sm.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
             .authorizeHttpRequests(auth -> auth
                 .requestMatchers(HttpMethod.OPTIONS, "/**").permitAll()
+                // async re-dispatches of long-lived responses (SSE) were authorized on the initial request
+                .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                 .requestMatchers(HttpMethod.POST, "/auth/signup", "/auth/login", "/auth/refresh").permitAll()
                 .requestMatchers(
                     "/swagger-ui.html", "/swagger-ui/**",
@@ -52,6 +55,8 @@ public class SecurityConfig {
                     "/favicon.ico", "/webjars/**", "/actuator/**",
                     "/warmup", "/healthz"
                 ).permitAll()
+                // called by Centrifugo itself; guarded by the proxy shared secret
+                .requestMatchers(HttpMethod.POST, "/centrifugo/connect", "/centrifugo/subscribe").permitAll()
                 .anyRequest().authenticated()
             )
             .httpBasic(b -> b.disable())
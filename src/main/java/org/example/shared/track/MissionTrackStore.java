@@ -0,0 +1,230 @@
+package org.example.shared.track;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Append-only store of driver positions per mission, kept on disk instead of in MySQL.
+ *
+ * File layout ({@code <id>.open} while the mission runs, {@code <id>.trk} once sealed):
+ * <pre>
+ *   "TRK1" chunk*
+ *   chunk = varint(count) point{count}
+ *   point = zigzag-varint(dt ms) zigzag-varint(dlat e6) zigzag-varint(dlng e6)
+ * </pre>
+ * Deltas restart from zero at each chunk, so appending never needs to read the file back
+ * (e.g. after a restart). Fixes are buffered in memory and written as one chunk per mission
+ * every flush interval; a steady 1 Hz fix costs roughly 3-5 bytes on disk. Reads go through
+ * a memory-mapped buffer.
+ */
+@Component
+public class MissionTrackStore {
+    private static final Logger log = LoggerFactory.getLogger(MissionTrackStore.class);
+    private static final byte[] MAGIC = {'T', 'R', 'K', '1'};
+    private static final double SCALE = 1_000_000d;
+    private static final int LOCK_STRIPES = 64;
+
+    public record TrackPoint(long at, double lat, double lng) {}
+
+    /** Encoded points waiting for the next flush; deltas are relative to the previous pending point. */
+    private static final class Pending {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        int count;
+        long lastAt;
+        int lastLat;
+        int lastLng;
+
+        void add(TrackPoint p) {
+            int lat = (int) Math.round(p.lat() * SCALE);
+            int lng = (int) Math.round(p.lng() * SCALE);
+            writeVarLong(bytes, zigZag(p.at() - lastAt));
+            writeVarLong(bytes, zigZag(lat - lastLat));
+            writeVarLong(bytes, zigZag(lng - lastLng));
+            lastAt = p.at();
+            lastLat = lat;
+            lastLng = lng;
+            count++;
+        }
+    }
+
+    private final Path dir;
+    private final ConcurrentHashMap<UUID, Pending> pending = new ConcurrentHashMap<>();
+    private final Object[] locks = new Object[LOCK_STRIPES];
+
+    public MissionTrackStore(@Value("${app.tracks.dir:./data/tracks}") String dir) {
+        this.dir = Path.of(dir);
+        for (int i = 0; i < LOCK_STRIPES; i++) locks[i] = new Object();
+        try {
+            Files.createDirectories(this.dir);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot create track directory " + this.dir, e);
+        }
+    }
+
+    /* ======================= Write ======================= */
+
+    public void append(UUID missionId, List<TrackPoint> points) {
+        if (points.isEmpty()) return;
+        pending.compute(missionId, (id, p) -> {
+            Pending target = p != null ? p : new Pending();
+            for (TrackPoint point : points) target.add(point);
+            return target;
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${app.tracks.flush-interval-ms:5000}")
+    public void flushAll() {
+        for (UUID missionId : pending.keySet()) {
+            try {
+                flush(missionId);
+            } catch (UncheckedIOException e) {
+                log.warn("Track flush failed mission={} err={}", missionId, e.getMessage());
+            }
+        }
+    }
+
+    /** Flush what is buffered and freeze the track; later appends for the mission are discarded. */
+    public void seal(UUID missionId) {
+        synchronized (lockFor(missionId)) {
+            flush(missionId);
+            Path open = openPath(missionId);
+            if (!Files.exists(open)) return;
+            try {
+                Files.move(open, sealedPath(missionId), StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot seal track " + missionId, e);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flushAll();
+    }
+
+    /* ======================= Read ======================= */
+
+    /** Decode the mission's track in recorded order. Returns false if there is no track. */
+    public boolean read(UUID missionId, Consumer<TrackPoint> sink) {
+        Path path;
+        synchronized (lockFor(missionId)) {
+            flush(missionId);
+            path = Files.exists(sealedPath(missionId)) ? sealedPath(missionId) : openPath(missionId);
+            if (!Files.exists(path)) return false;
+        }
+        try (FileChannel ch = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer buf = ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size());
+            decode(buf, sink);
+            return true;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read track " + missionId, e);
+        }
+    }
+
+    public boolean isSealed(UUID missionId) {
+        return Files.exists(sealedPath(missionId));
+    }
+
+    /* ======================= Internals ======================= */
+
+    private void flush(UUID missionId) {
+        synchronized (lockFor(missionId)) {
+            Pending p = pending.remove(missionId);
+            if (p == null || p.count == 0) return;
+            if (Files.exists(sealedPath(missionId))) return;
+
+            ByteArrayOutputStream chunk = new ByteArrayOutputStream(p.bytes.size() + 5);
+            writeVarLong(chunk, p.count);
+            chunk.writeBytes(p.bytes.toByteArray());
+            try (FileChannel ch = FileChannel.open(openPath(missionId),
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+                if (ch.size() == 0) ch.write(ByteBuffer.wrap(MAGIC));
+                ByteBuffer out = ByteBuffer.wrap(chunk.toByteArray());
+                while (out.hasRemaining()) ch.write(out);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot append track " + missionId, e);
+            }
+        }
+    }
+
+    private static void decode(ByteBuffer buf, Consumer<TrackPoint> sink) {
+        if (buf.remaining() < MAGIC.length) return;
+        for (byte b : MAGIC) {
+            if (buf.get() != b) throw new IllegalStateException("Not a track file");
+        }
+        try {
+            while (buf.hasRemaining()) {
+                long count = readVarLong(buf);
+                long at = 0;
+                long lat = 0;
+                long lng = 0;
+                for (long i = 0; i < count; i++) {
+                    at += unZigZag(readVarLong(buf));
+                    lat += unZigZag(readVarLong(buf));
+                    lng += unZigZag(readVarLong(buf));
+                    sink.accept(new TrackPoint(at, lat / SCALE, lng / SCALE));
+                }
+            }
+        } catch (BufferUnderflowException e) {
+            // torn final chunk from a crash mid-append: keep what decoded cleanly
+        }
+    }
+
+    private Object lockFor(UUID missionId) {
+        return locks[(missionId.hashCode() & 0x7fffffff) % LOCK_STRIPES];
+    }
+
+    private Path openPath(UUID missionId) {
+        return dir.resolve(missionId + ".open");
+    }
+
+    private Path sealedPath(UUID missionId) {
+        return dir.resolve(missionId + ".trk");
+    }
+
+    private static long zigZag(long v) {
+        return (v << 1) ^ (v >> 63);
+    }
+
+    private static long unZigZag(long v) {
+        return (v >>> 1) ^ -(v & 1);
+    }
+
+    private static void writeVarLong(ByteArrayOutputStream out, long v) {
+        while ((v & ~0x7FL) != 0) {
+            out.write((int) ((v & 0x7F) | 0x80));
+            v >>>= 7;
+        }
+        out.write((int) v);
+    }
+
+    private static long readVarLong(ByteBuffer buf) {
+        long result = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = buf.get();
+            result |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return result;
+        }
+        throw new IllegalStateException("Malformed varint in track file");
+    }
+}
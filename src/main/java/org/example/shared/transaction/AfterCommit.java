@@ -0,0 +1,24 @@
+package org.example.shared.transaction;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/** Defers in-memory side effects until the surrounding transaction has committed. */
+public final class AfterCommit {
+
+    private AfterCommit() {}
+
+    /** Run the action after commit, or right away when no transaction is active. */
+    public static void run(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
@@ -0,0 +1,65 @@
+-- Baseline schema, matching the JPA mappings. IF NOT EXISTS lets it adopt databases created by hand.
+CREATE TABLE IF NOT EXISTS users (
+    id             BINARY(16)    NOT NULL,
+    name           VARCHAR(255)  NOT NULL,
+    email          VARCHAR(255)  NOT NULL,
+    phone          VARCHAR(255)  NOT NULL,
+    password_hash  VARCHAR(255)  NOT NULL,
+    role           VARCHAR(32)   NOT NULL,
+    created_at     DATETIME(6)   NOT NULL,
+    PRIMARY KEY (id),
+    UNIQUE KEY uk_users_email (email)
+) ENGINE=InnoDB;
+
+CREATE TABLE IF NOT EXISTS missions (
+    id                   BINARY(16)     NOT NULL,
+    reference            VARCHAR(255)   NOT NULL,
+    status               VARCHAR(32)    NOT NULL,
+    owner_id             BINARY(16)     NOT NULL,
+    driver_id            BINARY(16)     NULL,
+    pickup_line1         VARCHAR(255)   NULL,
+    pickup_city          VARCHAR(255)   NULL,
+    pickup_postal_code   VARCHAR(255)   NULL,
+    pickup_notes         VARCHAR(255)   NULL,
+    pickup_lat           DOUBLE         NULL,
+    pickup_lng           DOUBLE         NULL,
+    dropoff_line1        VARCHAR(255)   NULL,
+    dropoff_city         VARCHAR(255)   NULL,
+    dropoff_postal_code  VARCHAR(255)   NULL,
+    dropoff_notes        VARCHAR(255)   NULL,
+    dropoff_lat          DOUBLE         NULL,
+    dropoff_lng          DOUBLE         NULL,
+    created_at           DATETIME(6)    NOT NULL,
+    updated_at           DATETIME(6)    NULL,
+    assigned_at          DATETIME(6)    NULL,
+    picked_up_at         DATETIME(6)    NULL,
+    in_transit_at        DATETIME(6)    NULL,
+    delivered_at         DATETIME(6)    NULL,
+    eta                  DATETIME(6)    NULL,
+    price_estimate       DECIMAL(38,2)  NULL,
+    parcel_size          VARCHAR(50)    NULL,
+    parcel_notes         TEXT           NULL,
+    PRIMARY KEY (id),
+    UNIQUE KEY uk_missions_reference (reference),
+    CONSTRAINT fk_missions_owner FOREIGN KEY (owner_id) REFERENCES users (id),
+    CONSTRAINT fk_missions_driver FOREIGN KEY (driver_id) REFERENCES users (id)
+) ENGINE=InnoDB;
+
+-- Transactional outbox for mission realtime events (relayed by MissionOutboxRelay)
+CREATE TABLE IF NOT EXISTS mission_outbox (
+    id          BIGINT       NOT NULL AUTO_INCREMENT,
+    mission_id  BINARY(16)   NULL,
+    channel     VARCHAR(255) NOT NULL,
+    payload     TEXT         NOT NULL,
+    created_at  DATETIME(6)  NOT NULL,
+    PRIMARY KEY (id)
+) ENGINE=InnoDB;
+
+-- Sequenced missions:<id> events for gap recovery (written by MissionEventLog)
+CREATE TABLE IF NOT EXISTS mission_events (
+    mission_id  BINARY(16)   NOT NULL,
+    seq         BIGINT       NOT NULL,
+    payload     TEXT         NOT NULL,
+    created_at  DATETIME(6)  NOT NULL,
+    PRIMARY KEY (mission_id, seq)
+) ENGINE=InnoDB;
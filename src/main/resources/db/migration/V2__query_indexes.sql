@@ -0,0 +1,16 @@
+-- Composite indexes for the repository query shapes; RepositoryQueryPlanTest checks each one with EXPLAIN.
+-- InnoDB appends the primary key (id) to every secondary index, so (..., created_at) also orders by id.
+-- The leading owner_id / driver_id columns also serve the foreign keys.
+
+-- Mission listings (keyset on created_at, id), and findIdsByOwner / findIdsByDriver (the status ranges)
+CREATE INDEX idx_missions_owner_created         ON missions (owner_id, created_at);
+CREATE INDEX idx_missions_owner_status_created  ON missions (owner_id, status, created_at);
+CREATE INDEX idx_missions_owner_city_created    ON missions (owner_id, pickup_city, created_at);
+CREATE INDEX idx_missions_driver_created        ON missions (driver_id, created_at);
+CREATE INDEX idx_missions_driver_status_created ON missions (driver_id, status, created_at);
+
+-- Auto-dispatch (oldest PENDING first) and the active-mission warm-up
+CREATE INDEX idx_missions_status_created        ON missions (status, created_at);
+
+-- Driver lists and search: role filter, rows already in name order
+CREATE INDEX idx_users_role_name                ON users (role, name);
@@ -0,0 +1,2 @@
+-- Optimistic locking for Mission (@Version); driver transitions bump it in their conditional UPDATE
+ALTER TABLE missions ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
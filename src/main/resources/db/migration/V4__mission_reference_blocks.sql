@@ -0,0 +1,6 @@
+-- Per-day mission reference counters, leased in blocks by MissionReferenceAllocator
+CREATE TABLE IF NOT EXISTS mission_reference_blocks (
+    day         CHAR(8)  NOT NULL,
+    next_value  BIGINT   NOT NULL,
+    PRIMARY KEY (day)
+) ENGINE=InnoDB;
@@ -0,0 +1,4 @@
+-- MissionOutboxRelay claims a page by leasing it in a short transaction, then publishes with no
+-- transaction (and no row locks) open
+ALTER TABLE mission_outbox ADD COLUMN lease_owner VARCHAR(64) NULL;
+ALTER TABLE mission_outbox ADD COLUMN lease_until DATETIME(6) NULL;
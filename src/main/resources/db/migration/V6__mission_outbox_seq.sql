@@ -0,0 +1,3 @@
+-- Sequence number of a missions:<id> event, assigned when the relay first claims the row and kept
+-- across publish retries
+ALTER TABLE mission_outbox ADD COLUMN seq BIGINT NULL;
@@ -0,0 +1,2 @@
+-- Resuming a mission's sequence reads max(seq) of its outbox rows (MissionOutboxRepository.findMaxSeq)
+CREATE INDEX idx_mission_outbox_mission_seq ON mission_outbox (mission_id, seq);
@@ -0,0 +1,21 @@
+-- Per-mission sequence counters of missions:<id> events, advanced atomically by whichever instance
+-- publishes (MissionEventCounterRepository#advance), so two instances never hand out the same number
+CREATE TABLE IF NOT EXISTS mission_event_counters (
+    mission_id  BINARY(16)  NOT NULL,
+    last_seq    BIGINT      NOT NULL,
+    PRIMARY KEY (mission_id)
+) ENGINE=InnoDB;
+
+-- Counters resume after the numbers already stored or reserved on outbox rows
+INSERT INTO mission_event_counters (mission_id, last_seq)
+SELECT * FROM (
+    SELECT mission_id, MAX(seq) AS max_seq FROM (
+        SELECT mission_id, seq FROM mission_events
+        UNION ALL
+        SELECT mission_id, seq FROM mission_outbox WHERE mission_id IS NOT NULL AND seq IS NOT NULL
+    ) numbered GROUP BY mission_id
+) m
+ON DUPLICATE KEY UPDATE last_seq = GREATEST(last_seq, m.max_seq);
+
+-- The outbox max(seq) lookup it replaces was the only user of this index
+DROP INDEX idx_mission_outbox_mission_seq ON mission_outbox;
@@ -0,0 +1,347 @@
+package org.example.shared.migration;
+
+import org.example.shared.entity.MissionStatus;
+import org.example.shared.entity.UserRole;
+import org.example.shared.repository.MissionEventRepository;
+import org.example.shared.repository.MissionOutboxRepository;
+import org.example.shared.repository.MissionPageQuery;
+import org.example.shared.repository.MissionRepository;
+import org.example.shared.repository.UserRepository;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.ByteBuffer;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * EXPLAINs the SQL Hibernate actually sends for the repository queries on the hot paths, against
+ * MySQL with the migrations applied and enough rows that the optimizer prefers indexes to scans.
+ * Statements are captured with their bound parameters through a recording DataSource and replayed
+ * under EXPLAIN, so a changed query, mapping or index shows up here. Needs Docker; skipped without it.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers(disabledWithoutDocker = true)
+@Import(RepositoryQueryPlanTest.Recording.class)
+class RepositoryQueryPlanTest {
+
+    @Container
+    static final MySQLContainer<?> MYSQL = new MySQLContainer<>("mysql:8.0.36");
+
+    private static final List<Captured> CAPTURED = new CopyOnWriteArrayList<>();
+    private static final List<UUID> OWNERS = new ArrayList<>();
+    private static final List<UUID> DRIVERS = new ArrayList<>();
+    private static final List<UUID> MISSIONS = new ArrayList<>();
+    private static final Set<MissionStatus> LIVE = EnumSet.of(
+            MissionStatus.PENDING, MissionStatus.ASSIGNED, MissionStatus.PICKED_UP, MissionStatus.IN_TRANSIT);
+
+    @Autowired MissionRepository missions;
+    @Autowired UserRepository users;
+    @Autowired MissionOutboxRepository outbox;
+    @Autowired MissionEventRepository events;
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", MYSQL::getJdbcUrl);
+        registry.add("spring.datasource.username", MYSQL::getUsername);
+        registry.add("spring.datasource.password", MYSQL::getPassword);
+        registry.add("spring.jpa.hibernate.ddl-auto", () -> "none");
+    }
+
+    @BeforeAll
+    static void schemaAndData() throws Exception {
+        try (Connection c = rawConnection()) {
+            SchemaMigrator.migrate(c);
+            seed(c);
+        }
+    }
+
+    @BeforeEach
+    void clear() {
+        CAPTURED.clear();
+    }
+
+    @Test
+    void ownerListings() {
+        UUID owner = OWNERS.get(0);
+        assertPlan(() -> missions.findPage(page(owner, null, null, null)),
+                "idx_missions_owner_created", false);
+        assertPlan(() -> missions.findPage(page(owner, null, EnumSet.of(MissionStatus.ASSIGNED), null)),
+                "idx_missions_owner_status_created", false);
+        assertPlan(() -> missions.findPage(page(owner, null, EnumSet.of(MissionStatus.ASSIGNED, MissionStatus.DELIVERED), null)),
+                "idx_missions_owner_status_created", false);
+        assertPlan(() -> missions.findPage(page(owner, null, null, "City 3")),
+                "idx_missions_owner_city_created", false);
+    }
+
+    @Test
+    void driverListings() {
+        UUID driver = DRIVERS.get(0);
+        assertPlan(() -> missions.findPage(page(null, driver, null, null)),
+                "idx_missions_driver_created", false);
+        assertPlan(() -> missions.findPage(page(null, driver, EnumSet.of(MissionStatus.PICKED_UP), null)),
+                "idx_missions_driver_status_created", false);
+    }
+
+    @Test
+    void realtimeEntitlements() {
+        assertPlan(() -> missions.findIdsByOwner(OWNERS.get(0), LIVE), "idx_missions_owner_status_created", true);
+        assertPlan(() -> missions.findIdsByDriver(DRIVERS.get(0), LIVE), "idx_missions_driver_status_created", true);
+        assertPlan(() -> missions.isParticipant(MISSIONS.get(0), DRIVERS.get(0)), "PRIMARY", true);
+    }
+
+    @Test
+    void dispatch() {
+        assertPlan(() -> missions.findByStatusOrderByCreatedAtAsc(MissionStatus.PENDING, PageRequest.of(0, 200)),
+                "idx_missions_status_created", false);
+        assertPlan(() -> missions.countByDrivers(DRIVERS.subList(0, 20), LIVE),
+                "idx_missions_driver_status_created", true);
+        assertPlan(() -> users.findAllByIdForUpdate(DRIVERS.subList(0, 20)), "PRIMARY", true);
+        assertPlan(() -> missions.findByIdIn(MISSIONS.subList(0, 20)), "PRIMARY", true);
+    }
+
+    @Test
+    void userLookups() {
+        assertPlan(() -> users.findByRoleOrderByNameAsc(UserRole.DRIVER), "idx_users_role_name", false);
+        assertPlan(() -> users.findByRoleAndNameContainingIgnoreCaseOrderByNameAsc(UserRole.DRIVER, "ann"),
+                "idx_users_role_name", false);
+        assertPlan(() -> users.findByEmail("owner7@example.org"), "uk_users_email", true);
+    }
+
+    @Test
+    void outboxAndEvents() {
+        assertPlan(() -> outbox.findOldestForUpdate(PageRequest.of(0, 100)), "PRIMARY", true);
+        assertPlan(() -> events.findMaxSeq(MISSIONS.get(0)), "PRIMARY", true);
+        assertPlan(() -> events.findByMissionIdAndSeqGreaterThanOrderBySeqAsc(MISSIONS.get(0), 3, PageRequest.of(0, 100)),
+                "PRIMARY", false);
+    }
+
+    /* ======================= Helpers ======================= */
+
+    private static MissionPageQuery page(UUID owner, UUID driver, Set<MissionStatus> statuses, String city) {
+        return new MissionPageQuery(owner, driver, statuses, null, null, city, null, 51);
+    }
+
+    /**
+     * Runs the repository call and EXPLAINs every SELECT it sent: the query itself must read through
+     * the expected index, and none of them (the query, then eager loads of its associations) may scan
+     * a whole table or, unless {@code sortAllowed}, filesort.
+     */
+    private void assertPlan(Runnable call, String expectedKey, boolean sortAllowed) {
+        CAPTURED.clear();
+        call.run();
+        List<Captured> selects = CAPTURED.stream()
+                .filter(s -> s.sql().trim().toLowerCase(Locale.ROOT).startsWith("select"))
+                .toList();
+        assertThat(selects).as("statements sent").isNotEmpty();
+        for (Captured select : selects) {
+            List<PlanRow> plan = explain(select);
+            String context = select.sql() + "\n" + plan;
+            if (select == selects.get(0)) {
+                // MIN/MAX answered from the index itself shows no key at all
+                assertThat(plan).as(context).anyMatch(r -> expectedKey.equals(r.key())
+                        || (r.extra() != null && r.extra().contains("Select tables optimized away")));
+            }
+            assertThat(plan).as(context).noneMatch(r -> "ALL".equals(r.type()));
+            if (!sortAllowed) {
+                assertThat(plan).as(context).noneMatch(r -> r.extra() != null && r.extra().contains("filesort"));
+            }
+        }
+    }
+
+    private static List<PlanRow> explain(Captured statement) {
+        try (Connection c = rawConnection(); PreparedStatement ps = c.prepareStatement("EXPLAIN " + statement.sql())) {
+            for (Binding b : statement.bindings()) b.setter().invoke(ps, b.args());
+            List<PlanRow> rows = new ArrayList<>();
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    rows.add(new PlanRow(rs.getString("table"), rs.getString("type"), rs.getString("key"),
+                            rs.getString("Extra")));
+                }
+            }
+            return rows;
+        } catch (Exception e) {
+            throw new IllegalStateException("EXPLAIN failed for " + statement.sql(), e);
+        }
+    }
+
+    private static Connection rawConnection() throws Exception {
+        return DriverManager.getConnection(MYSQL.getJdbcUrl(), MYSQL.getUsername(), MYSQL.getPassword());
+    }
+
+    // 2,000 users and 20,000 missions over statuses, cities and a year; the first owner and the first
+    // driver hold a third of them, the long histories the listing indexes are for
+    private static void seed(Connection c) throws Exception {
+        Random random = new Random(42);
+        Instant now = Instant.now().truncatedTo(ChronoUnit.MILLIS);
+        c.setAutoCommit(false);
+        try (PreparedStatement ps = c.prepareStatement("INSERT INTO users"
+                + " (id, name, email, phone, password_hash, role, created_at) VALUES (?, ?, ?, ?, 'x', ?, ?)")) {
+            for (int i = 0; i < 2000; i++) {
+                boolean driver = i % 10 == 0;
+                UUID id = UUID.randomUUID();
+                (driver ? DRIVERS : OWNERS).add(id);
+                ps.setBytes(1, bytes(id));
+                ps.setString(2, (driver ? "Driver " : "Owner ") + i);
+                ps.setString(3, (driver ? "driver" : "owner") + i + "@example.org");
+                ps.setString(4, "+3360000" + i);
+                ps.setString(5, (driver ? UserRole.DRIVER : UserRole.DISPATCHER).name());
+                ps.setTimestamp(6, Timestamp.from(now));
+                ps.addBatch();
+            }
+            ps.executeBatch();
+        }
+        MissionStatus[] statuses = MissionStatus.values();
+        try (PreparedStatement ps = c.prepareStatement("INSERT INTO missions"
+                + " (id, reference, status, owner_id, driver_id, pickup_city, created_at, updated_at, version)"
+                + " VALUES (?, ?, ?, ?, ?, ?, ?, ?, 0)")) {
+            for (int i = 0; i < 20000; i++) {
+                UUID id = UUID.randomUUID();
+                MISSIONS.add(id);
+                MissionStatus status = statuses[random.nextInt(statuses.length)];
+                Instant createdAt = now.minusSeconds(random.nextInt(365 * 86400));
+                ps.setBytes(1, bytes(id));
+                ps.setString(2, "M-" + i);
+                ps.setString(3, status.name());
+                boolean busy = i % 3 == 0;
+                ps.setBytes(4, bytes(OWNERS.get(busy ? 0 : random.nextInt(OWNERS.size()))));
+                ps.setBytes(5, status == MissionStatus.PENDING ? null
+                        : bytes(DRIVERS.get(busy ? 0 : random.nextInt(DRIVERS.size()))));
+                ps.setString(6, "City " + random.nextInt(20));
+                ps.setTimestamp(7, Timestamp.from(createdAt));
+                ps.setTimestamp(8, Timestamp.from(createdAt));
+                ps.addBatch();
+            }
+            ps.executeBatch();
+        }
+        try (PreparedStatement outboxRow = c.prepareStatement("INSERT INTO mission_outbox"
+                + " (mission_id, channel, payload, created_at, seq) VALUES (?, ?, '{}', ?, ?)");
+             PreparedStatement eventRow = c.prepareStatement("INSERT INTO mission_events"
+                + " (mission_id, seq, payload, created_at) VALUES (?, ?, '{}', ?)")) {
+            for (int i = 0; i < 5000; i++) {
+                UUID mission = MISSIONS.get(i % 1000);
+                long seq = i / 1000 + 1;
+                outboxRow.setBytes(1, bytes(mission));
+                outboxRow.setString(2, "missions:" + mission);
+                outboxRow.setTimestamp(3, Timestamp.from(now));
+                outboxRow.setLong(4, seq);
+                outboxRow.addBatch();
+                eventRow.setBytes(1, bytes(mission));
+                eventRow.setLong(2, seq);
+                eventRow.setTimestamp(3, Timestamp.from(now));
+                eventRow.addBatch();
+            }
+            outboxRow.executeBatch();
+            eventRow.executeBatch();
+        }
+        c.commit();
+        c.setAutoCommit(true);
+        try (Statement st = c.createStatement()) {
+            st.execute("ANALYZE TABLE users, missions, mission_outbox, mission_events");
+        }
+    }
+
+    private static byte[] bytes(UUID id) {
+        return ByteBuffer.allocate(16).putLong(id.getMostSignificantBits()).putLong(id.getLeastSignificantBits()).array();
+    }
+
+    record PlanRow(String table, String type, String key, String extra) {}
+
+    record Binding(Method setter, Object[] args) {}
+
+    record Captured(String sql, List<Binding> bindings) {}
+
+    /** Wraps the application DataSource so every executed statement is recorded with its parameters. */
+    @TestConfiguration
+    static class Recording {
+
+        @Bean
+        static BeanPostProcessor recordingDataSource() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return bean instanceof DataSource ds ? proxy(DataSource.class, ds, Recording::onDataSource) : bean;
+                }
+            };
+        }
+
+        private static Object onDataSource(Object target, Method method, Object[] args) throws Throwable {
+            Object result = invoke(target, method, args);
+            return result instanceof Connection c ? proxy(Connection.class, c, Recording::onConnection) : result;
+        }
+
+        private static Object onConnection(Object target, Method method, Object[] args) throws Throwable {
+            Object result = invoke(target, method, args);
+            if (result instanceof PreparedStatement ps && method.getName().equals("prepareStatement")) {
+                String sql = (String) args[0];
+                TreeMap<Integer, Binding> bindings = new TreeMap<>();
+                return proxy(PreparedStatement.class, ps, (t, m, a) -> {
+                    String name = m.getName();
+                    if (name.startsWith("set") && a != null && a.length >= 2 && a[0] instanceof Integer index) {
+                        bindings.put(index, new Binding(m, a.clone()));
+                    } else if (name.equals("clearParameters")) {
+                        bindings.clear();
+                    } else if (name.startsWith("execute") || name.equals("addBatch")) {
+                        CAPTURED.add(new Captured(sql, List.copyOf(bindings.values())));
+                    }
+                    return invoke(t, m, a);
+                });
+            }
+            return result;
+        }
+
+        private interface Handler {
+            Object handle(Object target, Method method, Object[] args) throws Throwable;
+        }
+
+        private static <T> T proxy(Class<T> type, T target, Handler handler) {
+            InvocationHandler h = (p, m, a) -> handler.handle(target, m, a);
+            return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, h));
+        }
+
+        private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}